@@ -0,0 +1,36 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Filter-Kruskal against Kruskal and Borůvka on sparse-to-medium random graphs with n * degree / 2 edges.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterKruskalBenchmark {
+    @Param({"10000", "100000"})
+    public int n;
+
+    @Param({"4", "16", "64"})
+    public int degree;
+
+    private Object graph;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        graph = Mst.build(Mst.random(n, degree / 2.0 / n, 7));
+        Mst.index(graph);
+    }
+
+    @Benchmark
+    public Object kruskal() throws Throwable { return Mst.kruskal(graph); }
+
+    @Benchmark
+    public Object filterKruskal() throws Throwable { return Mst.filterKruskal(graph); }
+
+    @Benchmark
+    public Object boruvka() throws Throwable { return Mst.boruvka(graph); }
+}
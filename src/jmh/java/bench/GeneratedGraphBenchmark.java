@@ -0,0 +1,37 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// The engines on GraphGenerator families at average degree 6; unlike Mst.random these are not forced connected,
+// and power-law and road-like inputs stress very different union-find and heap shapes than uniform pairs.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratedGraphBenchmark {
+    @Param({"er", "grid", "powerlaw", "components"})
+    public String family;
+
+    @Param({"200000"})
+    public int n;
+
+    private Object graph;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        graph = Mst.generate(family, n, 6, 7);
+        Mst.index(graph);
+    }
+
+    @Benchmark
+    public Object kruskal() throws Throwable { return Mst.kruskal(graph); }
+
+    @Benchmark
+    public Object filterKruskal() throws Throwable { return Mst.filterKruskal(graph); }
+
+    @Benchmark
+    public Object boruvka() throws Throwable { return Mst.boruvka(graph); }
+}
@@ -0,0 +1,37 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBuildBenchmark {
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    @Param({"sparse", "dense"})
+    public String density;
+
+    private Mst.Input input;
+    private Object unindexed;
+
+    @Setup(Level.Trial)
+    public void load() throws Throwable { input = Mst.load(size, density); }
+
+    // ensureIndexed() runs on the first CSR accessor call, so each invocation needs a fresh graph
+    @Setup(Level.Invocation)
+    public void fresh() throws Throwable { unindexed = Mst.build(input); }
+
+    @Benchmark
+    public Object addEdge() throws Throwable { return Mst.build(input); }
+
+    @Benchmark
+    public Object builder() throws Throwable { return Mst.buildBulk(input); }
+
+    @Benchmark
+    public int[] ensureIndexed() throws Throwable { return Mst.index(unindexed); }
+}
@@ -0,0 +1,172 @@
+package bench;
+
+import com.google.gson.*;
+import java.io.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// JMH refuses benchmark classes in the default package, and named packages cannot import the
+// default-package engines, so they are bound once through constant method handles.
+final class Mst {
+    private static final MethodHandle NEW_GRAPH, ADD_EDGE, OFFSETS, PRIM, KRUSKAL, BORUVKA;
+    private static final MethodHandle NEW_BUILDER, BUILDER_ADD, BUILDER_BUILD;
+    private static final MethodHandle PRIM_HEAP, DENSE_PRIM, FILTER_KRUSKAL;
+    private static final MethodHandle NEW_SPEC, SPEC_FAMILY, SPEC_N, SPEC_DEGREE, SPEC_SEED, GENERATE;
+    private static final Class<?> FAMILY;
+    private static final Class<?> HEAP_KIND;
+
+    static {
+        try {
+            MethodHandles.Lookup l = MethodHandles.publicLookup();
+            Class<?> graph = Class.forName("Graph");
+            Class<?> result = Class.forName("AlgoResult");
+            NEW_GRAPH = l.findConstructor(graph, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            ADD_EDGE = l.findVirtual(graph, "addEdge", MethodType.methodType(void.class, String.class, String.class, int.class))
+                    .asType(MethodType.methodType(void.class, Object.class, String.class, String.class, int.class));
+            OFFSETS = l.findVirtual(graph, "getOffsets", MethodType.methodType(int[].class))
+                    .asType(MethodType.methodType(int[].class, Object.class));
+            PRIM = l.findStatic(Class.forName("Prim"), "findMST", MethodType.methodType(result, graph, String.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, String.class));
+            KRUSKAL = l.findStatic(Class.forName("Kruskal"), "findMST", MethodType.methodType(result, graph))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            BORUVKA = l.findStatic(Class.forName("Boruvka"), "findMST", MethodType.methodType(result, graph))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            HEAP_KIND = Class.forName("PrimHeap$Kind");
+            PRIM_HEAP = l.findStatic(Class.forName("Prim"), "findMST",
+                            MethodType.methodType(result, graph, String.class, HEAP_KIND, boolean.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, String.class, Object.class, boolean.class));
+            DENSE_PRIM = l.findStatic(Class.forName("DensePrim"), "findMST", MethodType.methodType(result, graph, String.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, String.class));
+            FILTER_KRUSKAL = l.findStatic(Class.forName("FilterKruskal"), "findMST", MethodType.methodType(result, graph))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            Class<?> spec = Class.forName("GraphGenerator$Spec");
+            FAMILY = Class.forName("GraphGenerator$Family");
+            NEW_SPEC = l.findConstructor(spec, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            SPEC_FAMILY = l.findSetter(spec, "family", FAMILY).asType(MethodType.methodType(void.class, Object.class, Object.class));
+            SPEC_N = l.findSetter(spec, "n", int.class).asType(MethodType.methodType(void.class, Object.class, int.class));
+            SPEC_DEGREE = l.findSetter(spec, "degree", double.class).asType(MethodType.methodType(void.class, Object.class, double.class));
+            SPEC_SEED = l.findSetter(spec, "seed", long.class).asType(MethodType.methodType(void.class, Object.class, long.class));
+            GENERATE = l.findStatic(Class.forName("GraphGenerator"), "generate", MethodType.methodType(graph, spec))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            Class<?> builder = Class.forName("GraphBuilder");
+            NEW_BUILDER = l.findConstructor(builder, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            BUILDER_ADD = l.findVirtual(builder, "addEdge", MethodType.methodType(builder, String.class, String.class, int.class))
+                    .asType(MethodType.methodType(void.class, Object.class, String.class, String.class, int.class));
+            BUILDER_BUILD = l.findVirtual(builder, "build", MethodType.methodType(graph))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Mst() {}
+
+    static final class Input {
+        String label;
+        String start;
+        String[] from, to;
+        int[] weight;
+    }
+
+    static Object newGraph() throws Throwable { return (Object) NEW_GRAPH.invokeExact(); }
+    static void addEdge(Object g, String a, String b, int w) throws Throwable { ADD_EDGE.invokeExact(g, a, b, w); }
+    static int[] index(Object g) throws Throwable { return (int[]) OFFSETS.invokeExact(g); }
+    static Object prim(Object g, String start) throws Throwable { return (Object) PRIM.invokeExact(g, start); }
+    static Object prim(Object g, String start, Object heapKind, boolean lazy) throws Throwable {
+        return (Object) PRIM_HEAP.invokeExact(g, start, heapKind, lazy);
+    }
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object heapKind(String name) { return Enum.valueOf((Class) HEAP_KIND, name); }
+    static Object densePrim(Object g, String start) throws Throwable { return (Object) DENSE_PRIM.invokeExact(g, start); }
+    static Object kruskal(Object g) throws Throwable { return (Object) KRUSKAL.invokeExact(g); }
+    static Object boruvka(Object g) throws Throwable { return (Object) BORUVKA.invokeExact(g); }
+    static Object filterKruskal(Object g) throws Throwable { return (Object) FILTER_KRUSKAL.invokeExact(g); }
+
+    // a GraphGenerator graph with the family's default shape parameters
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object generate(String family, int n, double degree, long seed) throws Throwable {
+        Object spec = (Object) NEW_SPEC.invokeExact();
+        SPEC_FAMILY.invokeExact(spec, (Object) Enum.valueOf((Class) FAMILY, family.toUpperCase(Locale.ROOT)));
+        SPEC_N.invokeExact(spec, n);
+        SPEC_DEGREE.invokeExact(spec, degree);
+        SPEC_SEED.invokeExact(spec, seed);
+        return (Object) GENERATE.invokeExact(spec);
+    }
+
+    static Object buildBulk(Input in) throws Throwable {
+        Object b = (Object) NEW_BUILDER.invokeExact();
+        for (int i = 0; i < in.weight.length; i++) BUILDER_ADD.invokeExact(b, in.from[i], in.to[i], in.weight[i]);
+        return (Object) BUILDER_BUILD.invokeExact(b);
+    }
+
+    static Object build(Input in) throws Throwable {
+        Object g = newGraph();
+        for (int i = 0; i < in.weight.length; i++) addEdge(g, in.from[i], in.to[i], in.weight[i]);
+        return g;
+    }
+
+    // connected random graph: a random spanning tree plus uniform extra pairs up to round(density * n^2) edges,
+    // weights 1..10 like the inputs
+    static Input random(int n, double density, long seed) {
+        Random rnd = new Random(seed);
+        int m = (int) Math.min((long) n * (n - 1) / 2, Math.max(n - 1, Math.round(density * n * n)));
+        Set<Long> seen = new HashSet<>(m * 2);
+        Input in = new Input();
+        in.label = "random(" + n + "," + density + ")";
+        in.start = "v0";
+        in.from = new String[m]; in.to = new String[m]; in.weight = new int[m];
+        int k = 0;
+        for (int v = 1; v < n; v++, k++) {
+            int u = rnd.nextInt(v);
+            seen.add((long) u * n + v);
+            in.from[k] = "v" + u; in.to[k] = "v" + v; in.weight[k] = 1 + rnd.nextInt(10);
+        }
+        while (k < m) {
+            int a = rnd.nextInt(n), b = rnd.nextInt(n);
+            if (a == b) continue;
+            int u = Math.min(a, b), v = Math.max(a, b);
+            if (!seen.add((long) u * n + v)) continue;
+            in.from[k] = "v" + u; in.to[k] = "v" + v; in.weight[k] = 1 + rnd.nextInt(10);
+            k++;
+        }
+        return in;
+    }
+
+    // the largest graph of ass_3_input_<size>.json whose label mentions the density
+    static Input load(String size, String density) throws IOException {
+        Path p = Paths.get("src", "ass_3_input_" + size + ".json");
+        JsonObject root;
+        try (Reader r = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
+            root = JsonParser.parseReader(r).getAsJsonObject();
+        }
+        JsonObject best = null;
+        for (JsonElement ge : root.getAsJsonArray("graphs")) {
+            JsonObject gObj = ge.getAsJsonObject();
+            if (!gObj.get("label").getAsString().contains(density)) continue;
+            if (best == null || gObj.getAsJsonArray("edges").size() > best.getAsJsonArray("edges").size()) best = gObj;
+        }
+        if (best == null) throw new IllegalArgumentException("No " + density + " graph in " + p);
+
+        JsonArray edges = best.getAsJsonArray("edges");
+        Input in = new Input();
+        in.label = best.get("label").getAsString();
+        in.start = best.getAsJsonArray("nodes").get(0).getAsString();
+        in.from = new String[edges.size()];
+        in.to = new String[edges.size()];
+        in.weight = new int[edges.size()];
+        for (int i = 0; i < edges.size(); i++) {
+            JsonObject e = edges.get(i).getAsJsonObject();
+            in.from[i] = e.get("from").getAsString();
+            in.to[i] = e.get("to").getAsString();
+            in.weight[i] = e.get("weight").getAsInt();
+        }
+        return in;
+    }
+}
@@ -0,0 +1,40 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MstBenchmark {
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    @Param({"sparse", "dense"})
+    public String density;
+
+    private Mst.Input input;
+    private Object graph;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        input = Mst.load(size, density);
+        graph = Mst.build(input);
+        Mst.index(graph);
+    }
+
+    @Benchmark
+    public Object prim() throws Throwable { return Mst.prim(graph, input.start); }
+
+    @Benchmark
+    public Object densePrim() throws Throwable { return Mst.densePrim(graph, input.start); }
+
+    @Benchmark
+    public Object kruskal() throws Throwable { return Mst.kruskal(graph); }
+
+    @Benchmark
+    public Object boruvka() throws Throwable { return Mst.boruvka(graph); }
+}
@@ -0,0 +1,40 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Prim with each PrimHeap strategy, eager (all vertices queued at INF) and lazy (queued when reached).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimHeapBenchmark {
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    @Param({"sparse", "dense"})
+    public String density;
+
+    @Param({"BINARY", "DARY4", "DARY8", "PAIRING", "BUCKET"})
+    public String heap;
+
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    private Mst.Input input;
+    private Object graph;
+    private Object kind;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        input = Mst.load(size, density);
+        graph = Mst.build(input);
+        Mst.index(graph);
+        kind = Mst.heapKind(heap);
+    }
+
+    @Benchmark
+    public Object prim() throws Throwable { return Mst.prim(graph, input.start, kind, lazy); }
+}
@@ -0,0 +1,38 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Calibrates MSTSolver's density thresholds: the three engines on random connected graphs of density m / n^2.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    @Param({"100", "300", "1000"})
+    public int n;
+
+    @Param({"0.005", "0.01", "0.02", "0.05", "0.1", "0.2", "0.5"})
+    public double density;
+
+    private Mst.Input input;
+    private Object graph;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        input = Mst.random(n, density, 7);
+        graph = Mst.build(input);
+        Mst.index(graph);
+    }
+
+    @Benchmark
+    public Object densePrim() throws Throwable { return Mst.densePrim(graph, input.start); }
+
+    @Benchmark
+    public Object heapPrim() throws Throwable { return Mst.prim(graph, input.start); }
+
+    @Benchmark
+    public Object kruskal() throws Throwable { return Mst.kruskal(graph); }
+}
@@ -1,6 +1,19 @@
+import java.util.ArrayList;
 import java.util.List;
 public class AlgoResult {
     public final List<Edge> edges;
     public final long operations;
-    public AlgoResult(List<Edge> edges, long operations) { this.edges = edges; this.operations = operations; }
+    public final MSTMetrics metrics; // null unless MSTMetrics.ENABLED
+    public final MSTTree tree;       // primitive form when the engine picks graph edges by index, else null
+    public AlgoResult(List<Edge> edges, long operations) { this(edges, operations, null); }
+    public AlgoResult(List<Edge> edges, long operations, MSTMetrics metrics) {
+        this.edges = edges; this.operations = operations; this.metrics = metrics; this.tree = null;
+    }
+    // edges is then a view of the tree that names vertices on access
+    public AlgoResult(MSTTree tree, long operations, MSTMetrics metrics) {
+        this.edges = tree.edges(); this.operations = operations; this.metrics = metrics; this.tree = tree;
+    }
+
+    // the same result with named edges and no tree, for holders that outlive the graph
+    public AlgoResult detach() { return tree == null ? this : new AlgoResult(new ArrayList<>(edges), operations, metrics); }
 }
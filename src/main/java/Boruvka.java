@@ -0,0 +1,182 @@
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class Boruvka {
+    private static final int CHUNK = 4096;
+    private static final long NONE = -1L; // the largest key as unsigned
+
+    public static AlgoResult findMST(Graph g) { return findMST(g, ForkJoinPool.commonPool()); }
+
+    public static AlgoResult findMST(Graph g, ForkJoinPool pool) {
+        int n = g.getVertexList().size();
+        int[] eu = g.getEdgeU(), ev = g.getEdgeV(), ew = g.getEdgeW();
+        int m = g.edgeCount();
+        if (n == 0) return new AlgoResult(new ArrayList<>(), 0);
+        int[] picked = new int[n - 1];
+        int taken = 0;
+        MSTMetrics mt = MSTMetrics.start();
+
+        int minW = Integer.MAX_VALUE;
+        for (int i = 0; i < m; i++) minW = Math.min(minW, ew[i]);
+
+        // (w - minW, edge index) packed into one long: a strict total order equal to Kruskal's stable sort, compared
+        // unsigned as w - minW takes all 32 bits when the weights span the int range
+        long[] keyOf = new long[m];
+        for (int i = 0; i < m; i++) keyOf[i] = ((long) ew[i] - minW) << 32 | i;
+
+        int[] comp = new int[n];
+        for (int i = 0; i < n; i++) comp[i] = i;
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) parent[i] = i;
+        AtomicLongArray best = new AtomicLongArray(n);
+
+        int[] active = new int[m];
+        for (int i = 0; i < m; i++) active[i] = i;
+        int activeCount = m;
+        long ops = 0;
+
+        while (activeCount > 0 && taken < n - 1) {
+            for (int i = 0; i < n; i++) best.set(i, NONE);
+            long scanned = pool.invoke(new CheapestTask(active, 0, activeCount, eu, ev, keyOf, comp, best));
+            ops += scanned;
+            if (MSTMetrics.ENABLED) { mt.rounds++; mt.edgesScanned += scanned; }
+
+            boolean merged = false;
+            for (int c = 0; c < n; c++) {
+                long k = best.get(c);
+                if (k == NONE) continue;
+                int e = (int) k;
+                int ru = find(parent, comp[eu[e]], mt), rv = find(parent, comp[ev[e]], mt); ops += 2;
+                if (MSTMetrics.ENABLED) mt.finds += 2;
+                if (ru == rv) continue;
+                parent[ru] = rv;
+                picked[taken++] = e;
+                merged = true;
+                ops++;
+                if (MSTMetrics.ENABLED) mt.unions++;
+            }
+            if (!merged) break;
+
+            for (int c = 0; c < n; c++) parent[c] = find(parent, c, mt);
+            pool.invoke(new RelabelTask(comp, parent, 0, n));
+            int before = activeCount;
+            activeCount = compact(pool, active, activeCount, eu, ev, comp);
+            if (MSTMetrics.ENABLED) mt.edgesSkipped += before - activeCount;
+        }
+        return new AlgoResult(new MSTTree(g, picked, taken), ops, mt);
+    }
+
+    private static int compact(ForkJoinPool pool, int[] active, int count, int[] eu, int[] ev, int[] comp) {
+        if (count == 0) return 0;
+        int chunks = (count + CHUNK - 1) / CHUNK;
+        int[] kept = new int[chunks];
+        pool.invoke(new FilterTask(active, count, eu, ev, comp, kept, 0, chunks, false));
+        int[] start = new int[chunks];
+        int total = 0;
+        for (int c = 0; c < chunks; c++) { start[c] = total; total += kept[c]; }
+        int[] out = new int[total];
+        pool.invoke(new FilterTask(active, count, eu, ev, comp, start, 0, chunks, true, out));
+        System.arraycopy(out, 0, active, 0, total);
+        return total;
+    }
+
+    private static int find(int[] p, int x, MSTMetrics mt) {
+        while (p[x] != x) {
+            p[x] = p[p[x]]; x = p[x];
+            if (MSTMetrics.ENABLED) mt.findSteps++;
+        }
+        return x;
+    }
+
+    private static void offerMin(AtomicLongArray best, int c, long k) {
+        long cur;
+        while (Long.compareUnsigned(k, cur = best.get(c)) < 0) {
+            if (best.compareAndSet(c, cur, k)) return;
+        }
+    }
+
+    static final class CheapestTask extends RecursiveTask<Long> {
+        private final int[] active, eu, ev, comp;
+        private final long[] keyOf;
+        private final AtomicLongArray best;
+        private final int lo, hi;
+
+        CheapestTask(int[] active, int lo, int hi, int[] eu, int[] ev, long[] keyOf, int[] comp, AtomicLongArray best) {
+            this.active = active; this.lo = lo; this.hi = hi;
+            this.eu = eu; this.ev = ev; this.keyOf = keyOf; this.comp = comp; this.best = best;
+        }
+
+        @Override protected Long compute() {
+            if (hi - lo <= CHUNK) {
+                for (int i = lo; i < hi; i++) {
+                    int e = active[i];
+                    int cu = comp[eu[e]], cv = comp[ev[e]];
+                    if (cu == cv) continue;
+                    long k = keyOf[e];
+                    offerMin(best, cu, k);
+                    offerMin(best, cv, k);
+                }
+                return (long) (hi - lo);
+            }
+            int mid = (lo + hi) >>> 1;
+            CheapestTask left = new CheapestTask(active, lo, mid, eu, ev, keyOf, comp, best);
+            left.fork();
+            long right = new CheapestTask(active, mid, hi, eu, ev, keyOf, comp, best).compute();
+            return left.join() + right;
+        }
+    }
+
+    static final class RelabelTask extends RecursiveAction {
+        private final int[] comp, parent;
+        private final int lo, hi;
+
+        RelabelTask(int[] comp, int[] parent, int lo, int hi) { this.comp = comp; this.parent = parent; this.lo = lo; this.hi = hi; }
+
+        @Override protected void compute() {
+            if (hi - lo <= CHUNK) {
+                for (int v = lo; v < hi; v++) comp[v] = parent[comp[v]];
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new RelabelTask(comp, parent, lo, mid), new RelabelTask(comp, parent, mid, hi));
+        }
+    }
+
+    // counts surviving edges per chunk on the first pass, scatters them at the prefix offsets on the second
+    static final class FilterTask extends RecursiveAction {
+        private final int[] active, eu, ev, comp, perChunk, out;
+        private final int count, lo, hi;
+        private final boolean scatter;
+
+        FilterTask(int[] active, int count, int[] eu, int[] ev, int[] comp, int[] perChunk, int lo, int hi, boolean scatter) {
+            this(active, count, eu, ev, comp, perChunk, lo, hi, scatter, null);
+        }
+
+        FilterTask(int[] active, int count, int[] eu, int[] ev, int[] comp, int[] perChunk, int lo, int hi, boolean scatter, int[] out) {
+            this.active = active; this.count = count; this.eu = eu; this.ev = ev; this.comp = comp;
+            this.perChunk = perChunk; this.lo = lo; this.hi = hi; this.scatter = scatter; this.out = out;
+        }
+
+        @Override protected void compute() {
+            if (hi - lo == 1) {
+                int from = lo * CHUNK, to = Math.min(count, from + CHUNK);
+                int k = scatter ? perChunk[lo] : 0;
+                for (int i = from; i < to; i++) {
+                    int e = active[i];
+                    if (comp[eu[e]] == comp[ev[e]]) continue;
+                    if (scatter) out[k] = e;
+                    k++;
+                }
+                if (!scatter) perChunk[lo] = k;
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new FilterTask(active, count, eu, ev, comp, perChunk, lo, mid, scatter, out),
+                      new FilterTask(active, count, eu, ev, comp, perChunk, mid, hi, scatter, out));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+public class BoruvkaScaling {
+
+    public static void main(String[] args) throws Exception {
+        Path input = Paths.get(args.length > 0 ? args[0] : "src/ass_3_input_large.json");
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        run(input, maxThreads);
+    }
+
+    public static Path run(Path input, int maxThreads) throws Exception {
+        Graph g = largestGraph(input);
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int t = 1; t < maxThreads; t <<= 1) threadCounts.add(t);
+        threadCounts.add(maxThreads);
+        for (int i = 0; i < 50; i++) Boruvka.findMST(g);
+
+        Path outPath = Paths.get("target", "boruvka_scaling.csv");
+        Files.createDirectories(outPath.getParent());
+        try (BufferedWriter w = Files.newBufferedWriter(outPath, StandardCharsets.UTF_8)) {
+            w.write("threads,vertices,edges,median_ms,speedup");
+            w.newLine();
+            double base = 0;
+            for (int threads : threadCounts) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    for (int i = 0; i < 10; i++) Boruvka.findMST(g, pool);
+                    double[] ms = new double[21];
+                    for (int i = 0; i < ms.length; i++) {
+                        long t0 = System.nanoTime();
+                        Boruvka.findMST(g, pool);
+                        ms[i] = (System.nanoTime() - t0) / 1_000_000.0;
+                    }
+                    Arrays.sort(ms);
+                    double median = ms[ms.length / 2];
+                    if (threads == 1) base = median;
+                    String row = threads + "," + g.vertexCount() + "," + g.edgeCount() + ","
+                            + String.format(Locale.US, "%.4f", median) + ","
+                            + String.format(Locale.US, "%.2f", base / median);
+                    w.write(row);
+                    w.newLine();
+                    System.out.println(row);
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+        return outPath;
+    }
+
+    private static Graph largestGraph(Path input) throws IOException {
+        Graph best = null;
+        try (GraphReader reader = GraphReader.open(input)) {
+            while (reader.hasNext()) {
+                Graph g = reader.next().graph;
+                if (best == null || g.edgeCount() > best.edgeCount()) best = g;
+            }
+        }
+        if (best == null) throw new IllegalStateException("No graphs in input");
+        return best;
+    }
+}
@@ -0,0 +1,35 @@
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// Lock-free union-find over 0..n-1: CAS path halving in find(), CAS root linking (larger id under smaller) in union().
+public final class ConcurrentUnionFind {
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(int[].class);
+    private final int[] parent;
+
+    public ConcurrentUnionFind(int n) {
+        parent = new int[n];
+        for (int i = 0; i < n; i++) parent[i] = i;
+    }
+
+    public int find(int x) {
+        while (true) {
+            int p = (int) SLOT.getAcquire(parent, x);
+            if (p == x) return x;
+            int gp = (int) SLOT.getAcquire(parent, p);
+            if (gp != p) SLOT.weakCompareAndSetRelease(parent, x, p, gp);
+            x = gp;
+        }
+    }
+
+    // true when a and b were in different sets and are now joined
+    public boolean union(int a, int b) {
+        while (true) {
+            a = find(a);
+            b = find(b);
+            if (a == b) return false;
+            if (a < b) { int t = a; a = b; b = t; }
+            if (SLOT.compareAndSet(parent, a, a, b)) return true;
+        }
+    }
+}
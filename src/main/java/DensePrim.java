@@ -0,0 +1,54 @@
+
+import java.util.*;
+
+// Prim without a heap for dense graphs, O(n^2 + m): each step scans the packed keys of the unvisited vertices.
+public class DensePrim {
+    public static AlgoResult findMST(Graph g, String startName) {
+        if (g == null || g.isEmpty()) return new AlgoResult(new ArrayList<>(), 0);
+        Map<String,Integer> idx = g.getIndex();
+        List<String> vlist = g.getVertexList();
+        int n = vlist.size();
+        int start = (startName != null && idx.containsKey(startName)) ? idx.get(startName) : 0;
+        int[] off = g.getOffsets(), ends = g.getEnds(), tgt = g.getTargets(), wt = g.getWeights();
+
+        final int INF = Integer.MAX_VALUE / 4;
+        int[] rem = new int[n], remKey = new int[n], pos = new int[n], parent = new int[n];
+        for (int v = 0; v < n; v++) { rem[v] = v; pos[v] = v; }
+        Arrays.fill(remKey, INF);
+        Arrays.fill(parent, -1);
+        remKey[start] = 0;
+
+        long ops = 0;
+        MSTMetrics mt = MSTMetrics.start();
+        List<Edge> mst = new ArrayList<>(n - 1);
+        for (int cnt = n; cnt > 0; ) {
+            int best = 0, bestKey = remKey[0];
+            for (int i = 1; i < cnt; i++) {
+                int k = remKey[i];
+                if (k < bestKey) { bestKey = k; best = i; }
+            }
+            ops += cnt;
+            if (MSTMetrics.ENABLED) mt.heapPolls++;
+
+            int v = rem[best];
+            cnt--;
+            rem[best] = rem[cnt]; remKey[best] = remKey[cnt]; pos[rem[best]] = best;
+            pos[v] = -1;
+            // a vertex still at INF starts the next component, as in eager heap Prim
+            if (parent[v] != -1) mst.add(new Edge(vlist.get(parent[v]), vlist.get(v), bestKey));
+            if (mst.size() == n - 1) break;
+
+            if (MSTMetrics.ENABLED) mt.edgesScanned += ends[v] - off[v];
+            for (int i = off[v], end = ends[v]; i < end; i++) {
+                int p = pos[tgt[i]];
+                if (p >= 0 && wt[i] < remKey[p]) {
+                    remKey[p] = wt[i];
+                    parent[tgt[i]] = v;
+                    ops++;
+                    if (MSTMetrics.ENABLED) mt.decreaseKeys++;
+                } else if (MSTMetrics.ENABLED) mt.edgesSkipped++;
+            }
+        }
+        return new AlgoResult(mst, ops, mt);
+    }
+}
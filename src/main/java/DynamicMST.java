@@ -0,0 +1,642 @@
+
+import java.util.*;
+
+// Minimum spanning forest under edge insertion, deletion and reweighting: Holm-de Lichtenberg-Thorup levels over
+// Euler-tour forests find replacement edges, a link-cut tree answers path maxima on insertion.
+public class DynamicMST {
+    private static final int NIL = -1;
+    private static final long NONE = Long.MAX_VALUE, BOTTOM = Long.MIN_VALUE;
+
+    private final Map<String,Integer> vertexId = new HashMap<>();
+    private final List<String> vertexName = new ArrayList<>();
+    private final Map<Long,Integer> edgeByKey = new HashMap<>();
+
+    // level is -1 for self-loops, which never enter any structure
+    private int[] eu = new int[16], ev = new int[16], ew = new int[16], enode = new int[16], level = new int[16];
+    private boolean[] inTree = new boolean[16];
+    private int edgeSlots = 0;
+    private final ArrayDeque<Integer> freeEdges = new ArrayDeque<>();
+
+    // levels.get(i) holds the tree edges of level >= i and the non-tree edges of level exactly i
+    private final List<Level> levels = new ArrayList<>();
+
+    // link-cut tree over vertex and edge nodes
+    private int[] left = new int[32], right = new int[32], par = new int[32], mx = new int[32];
+    private long[] val = new long[32];
+    private boolean[] rev = new boolean[32];
+    private int[] nodeEdge = new int[32];
+    private int nodes = 0;
+    private final ArrayDeque<Integer> freeNodes = new ArrayDeque<>();
+    private int[] pushStack = new int[32];
+    private int[] vnode = new int[16];
+
+    private long cost = 0;
+    private int treeEdges = 0;
+    private long ops = 0;
+
+    public DynamicMST(Graph g, AlgoResult initial) {
+        levels.add(new Level(0));
+        List<String> vlist = g.getVertexList();
+        for (String v : vlist) vertexOf(v);
+        int[] gu = g.getEdgeU(), gv = g.getEdgeV(), gw = g.getEdgeW();
+        for (Edge e : initial.edges) {
+            int a = vertexOf(e.from), b = vertexOf(e.to);
+            if (a == b || edgeByKey.containsKey(key(a, b)) || levels.get(0).connected(a, b)) continue;
+            linkTree(newEdge(a, b, e.weight), 0);
+        }
+        // the initial result may be partial (e.g. Prim on a disconnected graph); inserting the rest
+        // in weight order completes it to the minimum spanning forest
+        Integer[] order = new Integer[g.edgeCount()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingInt(i -> gw[i]));
+        for (int i : order) {
+            int a = vertexId.get(vlist.get(gu[i])), b = vertexId.get(vlist.get(gv[i]));
+            Integer existing = edgeByKey.get(key(a, b));
+            if (existing != null) {
+                if (ew[existing] != gw[i]) updateWeight(vlist.get(gu[i]), vlist.get(gv[i]), gw[i]);
+                continue;
+            }
+            insert(a, b, gw[i]);
+        }
+    }
+
+    public void insertEdge(String a, String b, int w) {
+        int x = vertexOf(a), y = vertexOf(b);
+        if (edgeByKey.containsKey(key(x, y))) { updateWeight(a, b, w); return; }
+        insert(x, y, w);
+    }
+
+    public boolean deleteEdge(String a, String b) {
+        Integer ia = vertexId.get(a), ib = vertexId.get(b);
+        if (ia == null || ib == null) return false;
+        Integer id = edgeByKey.remove(key(ia, ib));
+        if (id == null) return false;
+        if (inTree[id]) {
+            int l = level[id];
+            cutTree(id);
+            reconnect(eu[id], ev[id], l);
+        } else if (level[id] >= 0) {
+            dropNonTree(id);
+        }
+        freeEdge(id);
+        return true;
+    }
+
+    public void updateWeight(String a, String b, int w) {
+        Integer ia = vertexId.get(a), ib = vertexId.get(b);
+        Integer id = (ia == null || ib == null) ? null : edgeByKey.get(key(ia, ib));
+        if (id == null) throw new NoSuchElementException("no edge " + a + "-" + b);
+        int old = ew[id];
+        if (w == old) return;
+        if (level[id] < 0) {
+            ew[id] = w;
+        } else if (inTree[id] && w < old) {
+            // a cheaper tree edge stays in the tree and is still the lightest edge of every cycle it shares
+            ew[id] = w;
+            int node = enode[id];
+            access(node);
+            val[node] = order(id);
+            pull(node);
+            cost += w - old;
+            if (level[id] > 0) levels.get(0).setArcUp(id, order(id));
+        } else if (!inTree[id] && w > old) {
+            // a dearer non-tree edge stays out; level 0 keeps it the lowest on every cycle it now tops
+            dropNonTree(id);
+            ew[id] = w;
+            addNonTree(id, 0);
+        } else {
+            deleteEdge(a, b);
+            insert(ia, ib, w);
+        }
+    }
+
+    public long totalCost() { return cost; }
+    public int treeSize() { return treeEdges; }
+    public int vertexCount() { return vertexName.size(); }
+    public boolean isSpanningTree() { return treeEdges == Math.max(0, vertexName.size() - 1); }
+    public long operations() { return ops; }
+
+    public List<Edge> treeEdges() {
+        List<Edge> out = new ArrayList<>(treeEdges);
+        for (int id = 0; id < edgeSlots; id++) {
+            if (inTree[id]) out.add(new Edge(vertexName.get(eu[id]), vertexName.get(ev[id]), ew[id]));
+        }
+        return out;
+    }
+
+    public AlgoResult toAlgoResult() { return new AlgoResult(treeEdges(), ops); }
+
+    private void insert(int a, int b, int w) {
+        int id = newEdge(a, b, w);
+        if (a == b) { level[id] = -1; return; }
+        if (!levels.get(0).connected(a, b)) { linkTree(id, 0); return; }
+        // every cycle through the new edge must have its heaviest edge on level 0
+        demoteAbove(a, order(id));
+        int heaviest = nodeEdge[pathMax(vertexNode(a), vertexNode(b))];
+        if (order(heaviest) > order(id)) {
+            cutTree(heaviest);
+            addNonTree(heaviest, 0);
+            linkTree(id, 0);
+        } else {
+            addNonTree(id, 0);
+        }
+    }
+
+    // after tree edge u-v of level top is cut, searches levels top..0 in the smaller half for the lightest
+    // non-tree edge that reconnects; the first level with one holds the lightest of all
+    private void reconnect(int u, int v, int top) {
+        for (int l = top; l >= 0; l--) {
+            Level lv = levels.get(l);
+            int xu = lv.vertexNode(u), xv = lv.vertexNode(v);
+            int small = lv.size(xu) <= lv.size(xv) ? xu : xv;
+            for (int arc; (arc = lv.findMarked(small)) != NIL; ) raiseTree(lv.edgeOf(arc), l);
+            for (int x; (x = lv.findMin(small)) != NIL; ) {
+                ops++;
+                int id = (int) lv.ownKey[x], from = lv.owner[x];
+                int other = eu[id] == from ? ev[id] : eu[id];
+                if (lv.connected(from, other)) {
+                    lv.removeAdj(id);
+                    addNonTree(id, l + 1);
+                } else {
+                    dropNonTree(id);
+                    linkTree(id, l);
+                    return;
+                }
+            }
+        }
+    }
+
+    // moves every level >= 1 edge heavier than bound in u's tree down to level 0
+    private void demoteAbove(int u, long bound) {
+        Level base = levels.get(0);
+        for (int x; (x = base.findMaxUp(base.vertexNode(u), bound)) != NIL; ) {
+            ops++;
+            if (base.owner[x] < 0) {
+                int id = base.edgeOf(x);
+                for (int l = level[id]; l >= 1; l--) levels.get(l).cut(id);
+                level[id] = 0;
+                base.setMark(id, true);
+                base.setArcUp(id, BOTTOM);
+            } else {
+                int id = (int) base.ownUp[x];
+                dropNonTree(id);
+                addNonTree(id, 0);
+            }
+        }
+    }
+
+    private void raiseTree(int id, int from) {
+        levels.get(from).setMark(id, false);
+        level[id] = from + 1;
+        level(from + 1).link(id);
+        if (from == 0) levels.get(0).setArcUp(id, order(id));
+    }
+
+    private void addNonTree(int id, int l) {
+        level[id] = l;
+        level(l).addAdj(id);
+        if (l > 0) { refreshUp(eu[id]); refreshUp(ev[id]); }
+    }
+
+    private void dropNonTree(int id) {
+        int l = level[id];
+        levels.get(l).removeAdj(id);
+        if (l > 0) { refreshUp(eu[id]); refreshUp(ev[id]); }
+    }
+
+    // level 0 tracks, per vertex, its heaviest incident non-tree edge above level 0
+    private void refreshUp(int v) {
+        long up = BOTTOM;
+        for (int l = 1; l < levels.size(); l++) up = Math.max(up, levels.get(l).heaviestAt(v));
+        levels.get(0).setVertexUp(v, up);
+    }
+
+    private Level level(int l) {
+        while (levels.size() <= l) levels.add(new Level(levels.size()));
+        return levels.get(l);
+    }
+
+    private int vertexOf(String name) {
+        Integer id = vertexId.get(name);
+        if (id != null) return id;
+        int v = vertexName.size();
+        vertexId.put(name, v);
+        vertexName.add(name);
+        if (v == vnode.length) vnode = Arrays.copyOf(vnode, v << 1);
+        vnode[v] = newNode(BOTTOM, NIL);
+        levels.get(0).vertexNode(v);
+        return v;
+    }
+
+    private int vertexNode(int v) { return vnode[v]; }
+
+    private int newEdge(int a, int b, int w) {
+        int id;
+        if (!freeEdges.isEmpty()) id = freeEdges.pop();
+        else {
+            id = edgeSlots++;
+            if (id == eu.length) {
+                int cap = id << 1;
+                eu = Arrays.copyOf(eu, cap); ev = Arrays.copyOf(ev, cap); ew = Arrays.copyOf(ew, cap);
+                enode = Arrays.copyOf(enode, cap); inTree = Arrays.copyOf(inTree, cap); level = Arrays.copyOf(level, cap);
+            }
+        }
+        if (vertexName.get(a).compareTo(vertexName.get(b)) > 0) { int t = a; a = b; b = t; }
+        eu[id] = a; ev[id] = b; ew[id] = w; inTree[id] = false; enode[id] = NIL; level[id] = 0;
+        edgeByKey.put(key(a, b), id);
+        return id;
+    }
+
+    private void freeEdge(int id) {
+        if (enode[id] != NIL) { freeNodes.push(enode[id]); enode[id] = NIL; }
+        inTree[id] = false;
+        freeEdges.push(id);
+    }
+
+    private void linkTree(int id, int l) {
+        level[id] = l;
+        for (int i = 0; i <= l; i++) level(i).link(id);
+        if (enode[id] == NIL) enode[id] = newNode(order(id), id);
+        else { int node = enode[id]; val[node] = order(id); pull(node); }
+        int node = enode[id];
+        link(node, vertexNode(eu[id]));
+        link(node, vertexNode(ev[id]));
+        inTree[id] = true;
+        cost += ew[id];
+        treeEdges++;
+    }
+
+    private void cutTree(int id) {
+        for (int i = level[id]; i >= 0; i--) levels.get(i).cut(id);
+        int node = enode[id];
+        cut(node, vertexNode(eu[id]));
+        cut(node, vertexNode(ev[id]));
+        inTree[id] = false;
+        cost -= ew[id];
+        treeEdges--;
+    }
+
+    // (weight, edge id) as one long: a strict total order, so the minimum spanning forest is unique
+    private long order(int id) { return ((long) ew[id] << 32) | id; }
+
+    private static long key(int a, int b) {
+        int lo = Math.min(a, b), hi = Math.max(a, b);
+        return ((long) lo << 32) | hi;
+    }
+
+    // Euler-tour forest of one level: a splay tree per tour over vertex nodes (owner = vertex) and two arc nodes per
+    // tree edge (owner = -1 - edge). Aggregates count vertices and level-exact tree edges (marked arcs), take the
+    // lightest level-exact non-tree edge and, on level 0 only, the heaviest edge above level 0.
+    private final class Level {
+        final int lv;
+        int[] left = new int[64], right = new int[64], up = new int[64], size = new int[64], verts = new int[64], marks = new int[64];
+        int[] owner = new int[64];
+        boolean[] mark = new boolean[64];
+        long[] ownKey = new long[64], minKey = new long[64], ownUp = new long[64], maxUp = new long[64];
+        int count = 0;
+        final ArrayDeque<Integer> free = new ArrayDeque<>();
+        int[] vnode = new int[0], arc = new int[0];
+        final List<TreeSet<Long>> adj = new ArrayList<>();
+
+        Level(int lv) { this.lv = lv; }
+
+        int edgeOf(int x) { return -1 - owner[x]; }
+
+        int vertexNode(int v) {
+            if (v >= vnode.length) {
+                int old = vnode.length;
+                vnode = Arrays.copyOf(vnode, Math.max(16, Math.max(v + 1, old << 1)));
+                Arrays.fill(vnode, old, vnode.length, NIL);
+            }
+            if (vnode[v] == NIL) vnode[v] = node(v);
+            return vnode[v];
+        }
+
+        boolean connected(int a, int b) { return a == b || first(vertexNode(a)) == first(vertexNode(b)); }
+
+        int size(int x) { splay(x); return verts[x]; }
+
+        void link(int id) {
+            int need = 2 * id + 2;
+            if (need > arc.length) {
+                int old = arc.length;
+                arc = Arrays.copyOf(arc, Math.max(32, Math.max(need, old << 1)));
+                Arrays.fill(arc, old, arc.length, NIL);
+            }
+            int x = vertexNode(eu[id]), y = vertexNode(ev[id]);
+            int p = node(-1 - id), q = node(-1 - id);
+            mark[p] = level[id] == lv;
+            if (lv == 0 && level[id] > 0) ownUp[p] = order(id);
+            pull(p);
+            arc[2 * id] = p;
+            arc[2 * id + 1] = q;
+            join(join(join(reroot(x), p), reroot(y)), q);
+        }
+
+        void cut(int id) {
+            int p = arc[2 * id], q = arc[2 * id + 1];
+            splay(p);
+            int ip = sizeOf(left[p]);
+            splay(q);
+            if (ip > sizeOf(left[q])) { int t = p; p = q; q = t; }
+            // the tour reads A p B q C; B is the half hanging below the edge
+            splay(p);
+            int a = left[p], rest = right[p];
+            if (a != NIL) up[a] = NIL;
+            up[rest] = NIL;
+            splay(q);
+            int b = left[q], c = right[q];
+            if (b != NIL) up[b] = NIL;
+            if (c != NIL) up[c] = NIL;
+            join(a, c);
+            free.push(p);
+            free.push(q);
+            arc[2 * id] = arc[2 * id + 1] = NIL;
+        }
+
+        void setMark(int id, boolean m) { int p = arc[2 * id]; splay(p); mark[p] = m; pull(p); }
+        void setArcUp(int id, long u) { int p = arc[2 * id]; splay(p); ownUp[p] = u; pull(p); }
+        void setVertexUp(int v, long u) { int x = vertexNode(v); splay(x); ownUp[x] = u; pull(x); }
+
+        void addAdj(int id) { at(eu[id]).add(order(id)); at(ev[id]).add(order(id)); refresh(eu[id]); refresh(ev[id]); }
+        void removeAdj(int id) { at(eu[id]).remove(order(id)); at(ev[id]).remove(order(id)); refresh(eu[id]); refresh(ev[id]); }
+
+        long heaviestAt(int v) {
+            TreeSet<Long> s = v < adj.size() ? adj.get(v) : null;
+            return s == null || s.isEmpty() ? BOTTOM : s.last();
+        }
+
+        private TreeSet<Long> at(int v) {
+            while (adj.size() <= v) adj.add(null);
+            TreeSet<Long> s = adj.get(v);
+            if (s == null) adj.set(v, s = new TreeSet<>());
+            return s;
+        }
+
+        private void refresh(int v) {
+            TreeSet<Long> s = at(v);
+            int x = vertexNode(v);
+            splay(x);
+            ownKey[x] = s.isEmpty() ? NONE : s.first();
+            pull(x);
+        }
+
+        // a marked arc in x's tour, or NIL
+        int findMarked(int x) {
+            splay(x);
+            if (marks[x] == 0) return NIL;
+            while (true) {
+                int l = left[x];
+                if (l != NIL && marks[l] > 0) x = l;
+                else if (mark[x]) break;
+                else x = right[x];
+            }
+            splay(x);
+            return x;
+        }
+
+        // the vertex node holding the lightest level-exact non-tree edge of x's tour, or NIL
+        int findMin(int x) {
+            splay(x);
+            long target = minKey[x];
+            if (target == NONE) return NIL;
+            while (true) {
+                int l = left[x];
+                if (l != NIL && minKey[l] == target) x = l;
+                else if (ownKey[x] == target) break;
+                else x = right[x];
+            }
+            splay(x);
+            return x;
+        }
+
+        // the node holding the heaviest edge above level 0 in x's tour if it is heavier than bound, or NIL
+        int findMaxUp(int x, long bound) {
+            splay(x);
+            long target = maxUp[x];
+            if (target <= bound) return NIL;
+            while (true) {
+                int l = left[x];
+                if (l != NIL && maxUp[l] == target) x = l;
+                else if (ownUp[x] == target) break;
+                else x = right[x];
+            }
+            splay(x);
+            return x;
+        }
+
+        private int node(int who) {
+            int x;
+            if (free.isEmpty()) {
+                x = count++;
+                if (x == left.length) {
+                    int cap = x << 1;
+                    left = Arrays.copyOf(left, cap); right = Arrays.copyOf(right, cap); up = Arrays.copyOf(up, cap);
+                    size = Arrays.copyOf(size, cap); verts = Arrays.copyOf(verts, cap); marks = Arrays.copyOf(marks, cap);
+                    owner = Arrays.copyOf(owner, cap); mark = Arrays.copyOf(mark, cap);
+                    ownKey = Arrays.copyOf(ownKey, cap); minKey = Arrays.copyOf(minKey, cap);
+                    ownUp = Arrays.copyOf(ownUp, cap); maxUp = Arrays.copyOf(maxUp, cap);
+                }
+            } else {
+                x = free.pop();
+            }
+            left[x] = right[x] = up[x] = NIL;
+            owner[x] = who;
+            mark[x] = false;
+            ownKey[x] = NONE;
+            ownUp[x] = BOTTOM;
+            pull(x);
+            return x;
+        }
+
+        private int sizeOf(int x) { return x == NIL ? 0 : size[x]; }
+
+        private void pull(int x) {
+            int l = left[x], r = right[x];
+            size[x] = 1;
+            verts[x] = owner[x] >= 0 ? 1 : 0;
+            marks[x] = mark[x] ? 1 : 0;
+            minKey[x] = ownKey[x];
+            maxUp[x] = ownUp[x];
+            if (l != NIL) {
+                size[x] += size[l]; verts[x] += verts[l]; marks[x] += marks[l];
+                minKey[x] = Math.min(minKey[x], minKey[l]); maxUp[x] = Math.max(maxUp[x], maxUp[l]);
+            }
+            if (r != NIL) {
+                size[x] += size[r]; verts[x] += verts[r]; marks[x] += marks[r];
+                minKey[x] = Math.min(minKey[x], minKey[r]); maxUp[x] = Math.max(maxUp[x], maxUp[r]);
+            }
+        }
+
+        private void rotate(int x) {
+            int y = up[x], z = up[y];
+            if (left[y] == x) {
+                left[y] = right[x];
+                if (right[x] != NIL) up[right[x]] = y;
+                right[x] = y;
+            } else {
+                right[y] = left[x];
+                if (left[x] != NIL) up[left[x]] = y;
+                left[x] = y;
+            }
+            up[y] = x;
+            up[x] = z;
+            if (z != NIL) { if (left[z] == y) left[z] = x; else right[z] = x; }
+            pull(y);
+            pull(x);
+        }
+
+        private void splay(int x) {
+            ops++;
+            while (up[x] != NIL) {
+                int y = up[x], z = up[y];
+                if (z != NIL) rotate((left[z] == y) == (left[y] == x) ? y : x);
+                rotate(x);
+            }
+        }
+
+        private int first(int x) {
+            splay(x);
+            while (left[x] != NIL) x = left[x];
+            splay(x);
+            return x;
+        }
+
+        private int last(int x) {
+            splay(x);
+            while (right[x] != NIL) x = right[x];
+            splay(x);
+            return x;
+        }
+
+        private int join(int a, int b) {
+            if (a == NIL) return b;
+            if (b == NIL) return a;
+            splay(b);
+            a = last(a);
+            right[a] = b;
+            up[b] = a;
+            pull(a);
+            return a;
+        }
+
+        // rotates x's tour so that it starts at vertex node x
+        private int reroot(int x) {
+            splay(x);
+            int l = left[x];
+            if (l == NIL) return x;
+            left[x] = NIL;
+            up[l] = NIL;
+            pull(x);
+            return join(x, l);
+        }
+    }
+
+    private int newNode(long value, int edge) {
+        int x;
+        if (freeNodes.isEmpty()) {
+            x = nodes++;
+            if (x == left.length) {
+                int cap = x << 1;
+                left = Arrays.copyOf(left, cap); right = Arrays.copyOf(right, cap); par = Arrays.copyOf(par, cap);
+                val = Arrays.copyOf(val, cap); mx = Arrays.copyOf(mx, cap); rev = Arrays.copyOf(rev, cap);
+                nodeEdge = Arrays.copyOf(nodeEdge, cap); pushStack = Arrays.copyOf(pushStack, cap);
+            }
+        } else {
+            x = freeNodes.pop();
+        }
+        left[x] = right[x] = par[x] = NIL;
+        rev[x] = false;
+        val[x] = value;
+        mx[x] = x;
+        nodeEdge[x] = edge;
+        return x;
+    }
+
+    private boolean isRoot(int x) { int p = par[x]; return p == NIL || (left[p] != x && right[p] != x); }
+
+    private void pull(int x) {
+        int best = x, l = left[x], r = right[x];
+        if (l != NIL && val[mx[l]] > val[best]) best = mx[l];
+        if (r != NIL && val[mx[r]] > val[best]) best = mx[r];
+        mx[x] = best;
+    }
+
+    private void push(int x) {
+        if (!rev[x]) return;
+        int t = left[x]; left[x] = right[x]; right[x] = t;
+        if (left[x] != NIL) rev[left[x]] ^= true;
+        if (right[x] != NIL) rev[right[x]] ^= true;
+        rev[x] = false;
+    }
+
+    private void rotate(int x) {
+        int y = par[x], z = par[y];
+        boolean yRoot = isRoot(y);
+        if (left[y] == x) {
+            left[y] = right[x];
+            if (right[x] != NIL) par[right[x]] = y;
+            right[x] = y;
+        } else {
+            right[y] = left[x];
+            if (left[x] != NIL) par[left[x]] = y;
+            left[x] = y;
+        }
+        par[y] = x;
+        par[x] = z;
+        if (!yRoot) { if (left[z] == y) left[z] = x; else right[z] = x; }
+        pull(y);
+        pull(x);
+    }
+
+    private void splay(int x) {
+        int top = 0;
+        pushStack[top++] = x;
+        for (int y = x; !isRoot(y); y = par[y]) pushStack[top++] = par[y];
+        while (top > 0) push(pushStack[--top]);
+        while (!isRoot(x)) {
+            int y = par[x];
+            if (!isRoot(y)) {
+                int z = par[y];
+                rotate((left[y] == x) == (left[z] == y) ? y : x);
+            }
+            rotate(x);
+        }
+    }
+
+    private void access(int x) {
+        ops++;
+        for (int last = NIL, y = x; y != NIL; last = y, y = par[y]) {
+            splay(y);
+            right[y] = last;
+            pull(y);
+        }
+        splay(x);
+    }
+
+    private void makeRoot(int x) {
+        access(x);
+        rev[x] ^= true;
+        push(x);
+    }
+
+    private void link(int x, int y) {
+        makeRoot(x);
+        par[x] = y;
+    }
+
+    private void cut(int x, int y) {
+        makeRoot(x);
+        access(y);
+        // x is now y's left child with nothing between them
+        left[y] = NIL;
+        par[x] = NIL;
+        pull(y);
+    }
+
+    private int pathMax(int a, int b) {
+        makeRoot(a);
+        access(b);
+        return mx[b];
+    }
+}
@@ -0,0 +1,294 @@
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+// Kruskal for edge sets that do not fit in the heap: sorted runs spilled to temp files, k-way merged into a
+// union-find. Accepts exactly the in-memory Kruskal's edges for the same edge order.
+public class ExternalKruskal {
+    static final int RECORD_BYTES = 12;
+    static final int RECORD_MEMORY = 28; // sort key, radix scratch, u, v and w per buffered edge
+    static final int MIN_MERGE_BUFFER = 1 << 16;
+
+    public static final class Options {
+        public long memoryBytes = 64L << 20;
+        public int ioBufferBytes = 4 << 20;
+        public Path tempDir = Paths.get(System.getProperty("java.io.tmpdir"));
+        public Stats stats = null; // filled when set
+    }
+
+    public static final class Stats {
+        public long edgesRead, runs, mergePasses, spilledBytes, edgesMerged;
+        public boolean stoppedEarly;
+    }
+
+    // fills u/v/w[off .. off + max) with the next edges and returns how many, 0 once exhausted
+    public interface EdgeSource {
+        int read(int[] u, int[] v, int[] w, int off, int max) throws IOException;
+    }
+
+    public static EdgeSource of(Graph g) {
+        int[] eu = g.getEdgeU(), ev = g.getEdgeV(), ew = g.getEdgeW();
+        int m = g.edgeCount();
+        int[] pos = {0};
+        return (u, v, w, off, max) -> {
+            int k = Math.min(max, m - pos[0]);
+            System.arraycopy(eu, pos[0], u, off, k);
+            System.arraycopy(ev, pos[0], v, off, k);
+            System.arraycopy(ew, pos[0], w, off, k);
+            pos[0] += k;
+            return k;
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) throw new IllegalArgumentException("usage: ExternalKruskal <graphs.bin> [memoryMiB]");
+        Options opt = new Options();
+        if (args.length > 1) opt.memoryBytes = Long.parseLong(args[1]) << 20;
+        try (GraphBinary bin = GraphBinary.open(Paths.get(args[0]))) {
+            for (int id : bin.ids()) {
+                opt.stats = new Stats();
+                long t0 = System.nanoTime();
+                AlgoResult r = findMST(bin.edges(id, opt.ioBufferBytes), bin.vertices(id), opt);
+                Stats s = opt.stats;
+                System.out.printf(Locale.US, "graph %d: %d edges, cost %d, %d runs, %d merge passes, %d B spilled, %.1f ms%s%n",
+                        id, r.edges.size(), SolvedGraph.cost(r), s.runs, s.mergePasses, s.spilledBytes,
+                        (System.nanoTime() - t0) / 1e6, s.stoppedEarly ? " (stopped early)" : "");
+            }
+        }
+    }
+
+    // names[i] is the name of vertex id i in the source
+    public static AlgoResult findMST(EdgeSource src, List<String> names, Options opt) throws IOException {
+        Stats st = opt.stats != null ? opt.stats : new Stats();
+        MSTMetrics mt = MSTMetrics.start();
+        int n = names.size();
+        int chunk = (int) Math.max(1024, Math.min(Integer.MAX_VALUE - 8, (opt.memoryBytes - opt.ioBufferBytes) / RECORD_MEMORY));
+        int[] u = new int[chunk], v = new int[chunk], w = new int[chunk];
+
+        UnionFind uf = new UnionFind(n, mt);
+        List<Edge> mst = new ArrayList<>(Math.max(0, n - 1));
+        int k = fill(src, u, v, w, chunk);
+        st.edgesRead += k;
+        // the whole input fits: no spill
+        if (k < chunk) {
+            long[] keys = sorted(u, v, w, k, mt);
+            while (st.edgesMerged < k && mst.size() < n - 1) {
+                int e = (int) keys[(int) st.edgesMerged++];
+                accept(uf, mst, names, u[e], v[e], w[e], mt);
+            }
+            st.stoppedEarly = st.edgesMerged < k;
+            return new AlgoResult(mst, st.edgesRead + uf.ops, mt);
+        }
+
+        Path dir = Files.createTempDirectory(opt.tempDir, "mst-ext");
+        try {
+            ByteBuffer buf = ByteBuffer.allocateDirect(opt.ioBufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+            List<Path> runs = new ArrayList<>();
+            while (k > 0) {
+                long[] keys = sorted(u, v, w, k, mt);
+                Path run = dir.resolve("run" + runs.size());
+                try (FileChannel ch = FileChannel.open(run, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                    for (int i = 0; i < k; i++) {
+                        int e = (int) keys[i];
+                        if (buf.remaining() < RECORD_BYTES) drain(buf, ch);
+                        buf.putInt(w[e]).putInt(u[e]).putInt(v[e]);
+                    }
+                    drain(buf, ch);
+                }
+                st.spilledBytes += (long) k * RECORD_BYTES;
+                runs.add(run);
+                k = fill(src, u, v, w, chunk);
+                st.edgesRead += k;
+            }
+            u = v = w = null;
+            st.runs = runs.size();
+
+            int fanIn = (int) Math.max(2, Math.min(1024, opt.memoryBytes / MIN_MERGE_BUFFER - 1));
+            int runBuffer = (int) Math.max(MIN_MERGE_BUFFER, Math.min(opt.ioBufferBytes, opt.memoryBytes / (fanIn + 1)));
+            while (runs.size() > fanIn) {
+                List<Path> next = new ArrayList<>();
+                for (int from = 0; from < runs.size(); from += fanIn) {
+                    List<Path> group = runs.subList(from, Math.min(runs.size(), from + fanIn));
+                    if (group.size() == 1) { next.add(group.get(0)); continue; }
+                    Path out = dir.resolve("pass" + st.mergePasses + "_" + next.size());
+                    try (Merger m = new Merger(group, runBuffer);
+                         FileChannel ch = FileChannel.open(out, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                        while (m.next()) {
+                            if (buf.remaining() < RECORD_BYTES) drain(buf, ch);
+                            buf.putInt(m.w).putInt(m.u).putInt(m.v);
+                            st.spilledBytes += RECORD_BYTES;
+                        }
+                        drain(buf, ch);
+                    }
+                    for (Path p : group) Files.delete(p);
+                    next.add(out);
+                }
+                runs = next;
+                st.mergePasses++;
+            }
+
+            try (Merger m = new Merger(runs, runBuffer)) {
+                while (mst.size() < n - 1 && m.next()) {
+                    st.edgesMerged++;
+                    accept(uf, mst, names, m.u, m.v, m.w, mt);
+                }
+                st.stoppedEarly = st.edgesMerged < st.edgesRead;
+            }
+            return new AlgoResult(mst, st.edgesRead + st.spilledBytes / RECORD_BYTES + uf.ops, mt);
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path p : (Iterable<Path>) files::iterator) Files.deleteIfExists(p);
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static int fill(EdgeSource src, int[] u, int[] v, int[] w, int max) throws IOException {
+        int k = 0;
+        for (int got; k < max && (got = src.read(u, v, w, k, max - k)) > 0; ) k += got;
+        return k;
+    }
+
+    // buffered edge indices in (weight, position) order, packed as in Kruskal
+    private static long[] sorted(int[] u, int[] v, int[] w, int k, MSTMetrics mt) {
+        int minW = Integer.MAX_VALUE, maxW = Integer.MIN_VALUE;
+        for (int i = 0; i < k; i++) { if (w[i] < minW) minW = w[i]; if (w[i] > maxW) maxW = w[i]; }
+        long[] keys = new long[k];
+        for (int i = 0; i < k; i++) keys[i] = ((long) w[i] - minW) << 32 | i;
+        long work = k == 0 ? 0 : Kruskal.sortKeys(keys, (long) maxW - minW);
+        if (MSTMetrics.ENABLED) mt.sortWork += work;
+        return keys;
+    }
+
+    private static void accept(UnionFind uf, List<Edge> mst, List<String> names, int u, int v, int w, MSTMetrics mt) {
+        if (MSTMetrics.ENABLED) mt.edgesScanned++;
+        if (uf.union(u, v)) mst.add(new Edge(names.get(u), names.get(v), w));
+        else if (MSTMetrics.ENABLED) mt.edgesSkipped++;
+    }
+
+    private static void drain(ByteBuffer buf, FileChannel ch) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    static final class UnionFind {
+        private final int[] parent;
+        private final byte[] rank;
+        private final MSTMetrics mt;
+        long ops;
+
+        UnionFind(int n, MSTMetrics mt) {
+            this.mt = mt;
+            parent = new int[n];
+            rank = new byte[n];
+            for (int i = 0; i < n; i++) parent[i] = i;
+        }
+
+        boolean union(int a, int b) {
+            int ra = find(a), rb = find(b);
+            ops += 2;
+            if (MSTMetrics.ENABLED) mt.finds += 2;
+            if (ra == rb) return false;
+            if (rank[ra] < rank[rb]) parent[ra] = rb;
+            else if (rank[ra] > rank[rb]) parent[rb] = ra;
+            else { parent[rb] = ra; rank[ra]++; }
+            ops++;
+            if (MSTMetrics.ENABLED) mt.unions++;
+            return true;
+        }
+
+        private int find(int x) {
+            while (parent[x] != x) {
+                parent[x] = parent[parent[x]]; x = parent[x];
+                if (MSTMetrics.ENABLED) mt.findSteps++;
+            }
+            return x;
+        }
+    }
+
+    // k-way merge of sorted runs; a binary heap of run indices ordered by (weight, run)
+    static final class Merger implements AutoCloseable {
+        private final FileChannel[] ch;
+        private final ByteBuffer[] buf;
+        private final int[] hw, hu, hv; // head record of each run
+        private final int[] heap;
+        private int size;
+        int u, v, w;
+
+        Merger(List<Path> runs, int bufferBytes) throws IOException {
+            int k = runs.size();
+            ch = new FileChannel[k];
+            buf = new ByteBuffer[k];
+            hw = new int[k]; hu = new int[k]; hv = new int[k];
+            heap = new int[k];
+            try {
+                for (int r = 0; r < k; r++) {
+                    ch[r] = FileChannel.open(runs.get(r), StandardOpenOption.READ);
+                    buf[r] = ByteBuffer.allocateDirect(bufferBytes - bufferBytes % RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                    buf[r].flip();
+                    if (advance(r)) { heap[size] = r; swim(size++); }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        boolean next() throws IOException {
+            if (size == 0) return false;
+            int r = heap[0];
+            w = hw[r]; u = hu[r]; v = hv[r];
+            if (!advance(r)) heap[0] = heap[--size];
+            sink(0);
+            return true;
+        }
+
+        private boolean advance(int r) throws IOException {
+            ByteBuffer b = buf[r];
+            if (b.remaining() < RECORD_BYTES) {
+                b.compact();
+                while (b.hasRemaining() && ch[r].read(b) > 0) { }
+                b.flip();
+                if (b.remaining() < RECORD_BYTES) return false;
+            }
+            hw[r] = b.getInt(); hu[r] = b.getInt(); hv[r] = b.getInt();
+            return true;
+        }
+
+        private boolean less(int a, int b) { return hw[a] != hw[b] ? hw[a] < hw[b] : a < b; }
+
+        private void swim(int i) {
+            int x = heap[i];
+            while (i > 0 && less(x, heap[(i - 1) >>> 1])) { heap[i] = heap[(i - 1) >>> 1]; i = (i - 1) >>> 1; }
+            heap[i] = x;
+        }
+
+        private void sink(int i) {
+            if (size == 0) return;
+            int x = heap[i];
+            while (true) {
+                int c = 2 * i + 1;
+                if (c >= size) break;
+                if (c + 1 < size && less(heap[c + 1], heap[c])) c++;
+                if (!less(heap[c], x)) break;
+                heap[i] = heap[c];
+                i = c;
+            }
+            heap[i] = x;
+        }
+
+        @Override public void close() throws IOException {
+            IOException failure = null;
+            for (FileChannel c : ch) {
+                if (c == null) continue;
+                try { c.close(); } catch (IOException e) { if (failure == null) failure = e; }
+            }
+            if (failure != null) throw failure;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Filter-Kruskal over Kruskal's (w - minW, edge index) keys, so it takes Kruskal's edges in Kruskal's order;
+// partition and filter run on the pool for large ranges.
+public class FilterKruskal {
+    static final int BASE = 1 << 12;
+    static final int PARALLEL_MIN = 1 << 15;
+    private static final int CHUNK = 4096;
+
+    public static AlgoResult findMST(Graph g) { return findMST(g, ForkJoinPool.commonPool()); }
+
+    // pool may be null to run everything on the caller
+    public static AlgoResult findMST(Graph g, ForkJoinPool pool) {
+        int[] ew = g.getEdgeW();
+        int m = g.edgeCount();
+        int minW = Integer.MAX_VALUE, maxW = Integer.MIN_VALUE;
+        for (int i = 0; i < m; i++) { int w = ew[i]; if (w < minW) minW = w; if (w > maxW) maxW = w; }
+        long[] keys = new long[m];
+        for (int i = 0; i < m; i++) keys[i] = ((long) ew[i] - minW) << 32 | i;
+
+        Run r = new Run(g, keys, (long) maxW - minW, pool);
+        r.solve(0, m);
+        return new AlgoResult(new MSTTree(g, r.picked, r.taken), r.ops, r.mt);
+    }
+
+    private static final class Run {
+        final int n;
+        final int[] eu, ev;
+        final long[] keys, scratch;
+        final long range;
+        final ForkJoinPool pool;
+        final ConcurrentUnionFind uf;
+        final int[] picked;
+        int taken;
+        final MSTMetrics mt = MSTMetrics.start();
+        long ops;
+
+        Run(Graph g, long[] keys, long range, ForkJoinPool pool) {
+            n = g.getVertexList().size();
+            eu = g.getEdgeU(); ev = g.getEdgeV();
+            this.keys = keys;
+            this.scratch = new long[keys.length];
+            this.range = range;
+            this.pool = pool;
+            uf = new ConcurrentUnionFind(n);
+            picked = new int[Math.max(0, n - 1)];
+        }
+
+        void solve(int lo, int hi) {
+            if (lo >= hi || taken >= n - 1) return;
+            if (hi - lo <= BASE) { base(lo, hi); return; }
+            int mid = partition(lo, hi, pivot(lo, hi));
+            solve(lo, mid);
+            if (taken >= n - 1) return;
+            solve(mid, filter(mid, hi));
+        }
+
+        private void base(int lo, int hi) {
+            // partition and filter are stable, so equal weights are still in index order for Kruskal's radix sort
+            long[] k = Arrays.copyOfRange(keys, lo, hi);
+            long work = Kruskal.sortKeys(k, range);
+            ops += work;
+            if (MSTMetrics.ENABLED) mt.sortWork += work;
+            for (int i = 0; i < k.length && taken < n - 1; i++) {
+                int e = (int) k[i];
+                ops += 2;
+                if (MSTMetrics.ENABLED) { mt.edgesScanned++; mt.finds += 2; }
+                if (uf.union(eu[e], ev[e])) {
+                    picked[taken++] = e;
+                    ops++;
+                    if (MSTMetrics.ENABLED) mt.unions++;
+                } else if (MSTMetrics.ENABLED) mt.edgesSkipped++;
+            }
+        }
+
+        // median of three spread samples; keys are distinct, so both sides of the split are non-empty
+        private long pivot(int lo, int hi) {
+            int q = (hi - lo) >>> 2;
+            long a = keys[lo + q], b = keys[lo + 2 * q], c = keys[lo + 3 * q];
+            if (Long.compareUnsigned(a, b) > 0) { long t = a; a = b; b = t; }
+            if (Long.compareUnsigned(b, c) > 0) b = c;
+            return Long.compareUnsigned(a, b) > 0 ? a : b;
+        }
+
+        // stable: keys <= pivot move to [lo, mid) and the rest follow, both in their old order; returns mid
+        private int partition(int lo, int hi, long pivot) {
+            ops += hi - lo;
+            if (pool == null || hi - lo < PARALLEL_MIN) {
+                int l = lo, r = 0;
+                for (int i = lo; i < hi; i++) {
+                    long k = keys[i];
+                    if (Long.compareUnsigned(k, pivot) <= 0) keys[l++] = k; else scratch[r++] = k;
+                }
+                System.arraycopy(scratch, 0, keys, l, r);
+                return l;
+            }
+            return split(lo, hi, pivot, false);
+        }
+
+        // drops edges of [lo, hi) whose endpoints are already connected; returns the new end
+        private int filter(int lo, int hi) {
+            ops += 2L * (hi - lo);
+            int end;
+            if (pool == null || hi - lo < PARALLEL_MIN) {
+                end = lo;
+                for (int i = lo; i < hi; i++) {
+                    int e = (int) keys[i];
+                    if (uf.find(eu[e]) != uf.find(ev[e])) keys[end++] = keys[i];
+                }
+            } else {
+                end = split(lo, hi, 0, true);
+            }
+            if (MSTMetrics.ENABLED) { mt.finds += 2L * (hi - lo); mt.edgesSkipped += hi - end; }
+            return end;
+        }
+
+        // parallel two-pass split of [lo, hi) through scratch: chunk counts, then a scatter at prefix offsets.
+        // Partition keeps keys <= pivot left and the rest right; filter keeps unconnected edges only.
+        private int split(int lo, int hi, long pivot, boolean filter) {
+            int chunks = (hi - lo + CHUNK - 1) / CHUNK;
+            int[] left = new int[chunks];
+            pool.invoke(new SplitTask(this, lo, hi, pivot, filter, left, null, 0, chunks));
+            int[] start = new int[chunks];
+            int total = 0;
+            for (int c = 0; c < chunks; c++) { start[c] = total; total += left[c]; }
+            pool.invoke(new SplitTask(this, lo, hi, pivot, filter, start, new int[]{total}, 0, chunks));
+            int keep = filter ? total : hi - lo;
+            System.arraycopy(scratch, lo, keys, lo, keep);
+            return lo + total;
+        }
+
+        boolean goesLeft(long key, long pivot, boolean filter) {
+            if (!filter) return Long.compareUnsigned(key, pivot) <= 0;
+            // no union runs while the filter does, so two finds decide it
+            int e = (int) key;
+            return uf.find(eu[e]) != uf.find(ev[e]);
+        }
+    }
+
+    static final class SplitTask extends RecursiveAction {
+        private final Run r;
+        private final int lo, hi, from, to;
+        private final long pivot;
+        private final boolean filter;
+        private final int[] perChunk, leftTotal; // leftTotal is null on the counting pass
+
+        SplitTask(Run r, int lo, int hi, long pivot, boolean filter, int[] perChunk, int[] leftTotal, int from, int to) {
+            this.r = r; this.lo = lo; this.hi = hi; this.pivot = pivot; this.filter = filter;
+            this.perChunk = perChunk; this.leftTotal = leftTotal; this.from = from; this.to = to;
+        }
+
+        @Override protected void compute() {
+            if (to - from == 1) {
+                int a = lo + from * CHUNK, b = Math.min(hi, a + CHUNK);
+                long[] keys = r.keys, out = r.scratch;
+                if (leftTotal == null) {
+                    int k = 0;
+                    // the filter compacts its survivors to the chunk's front, so the scatter pass just copies them
+                    if (filter) { for (int i = a; i < b; i++) if (r.goesLeft(keys[i], pivot, true)) keys[a + k++] = keys[i]; }
+                    else for (int i = a; i < b; i++) if (r.goesLeft(keys[i], pivot, false)) k++;
+                    perChunk[from] = k;
+                    return;
+                }
+                if (filter) {
+                    int end = from + 1 < perChunk.length ? perChunk[from + 1] : leftTotal[0];
+                    System.arraycopy(keys, a, out, lo + perChunk[from], end - perChunk[from]);
+                    return;
+                }
+                // the chunk's right keys start after every left key and the right keys of earlier chunks
+                int l = lo + perChunk[from], rt = lo + leftTotal[0] + (a - lo - perChunk[from]);
+                for (int i = a; i < b; i++) {
+                    if (r.goesLeft(keys[i], pivot, false)) out[l++] = keys[i];
+                    else out[rt++] = keys[i];
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SplitTask(r, lo, hi, pivot, filter, perChunk, leftTotal, from, mid),
+                      new SplitTask(r, lo, hi, pivot, filter, perChunk, leftTotal, mid, to));
+        }
+    }
+}
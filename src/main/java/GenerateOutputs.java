@@ -1,136 +1,140 @@
 // src/main/java/GenerateOutputs.java
-import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
+// Writes ass_3_output.json one graph at a time with a JsonWriter; nothing but the graph being written is
+// kept. The layout is the pretty-printed {"results": [...]} bundle. Output paths ending in .gz are gzipped.
 public class GenerateOutputs {
 
-    static class EdgeOut {
-        String from, to;
-        int weight;
-        EdgeOut(String f, String t, int w){ this.from=f; this.to=t; this.weight=w; }
-    }
-    static class AlgoOut {
-        double execution_time_ms;
-        long operations;
-        int total_cost;
-        boolean connected;
-        List<EdgeOut> mst_edges = new ArrayList<>();
-    }
-    static class ResultOut {
-        String file;
-        int graph_id;
-        String label;
-        Map<String,Integer> input_stats = new LinkedHashMap<>();
-        AlgoOut prim = new AlgoOut();
-        AlgoOut kruskal = new AlgoOut();
-        Map<String,Object> comparison = new LinkedHashMap<>();
-    }
-    static class Bundle {
-        List<ResultOut> results = new ArrayList<>();
-    }
+    // how mst_edges is written for graphs with more than edgesOver vertices
+    public enum EdgeMode { FULL, COMPACT, NONE }
 
     public static void main(String[] args) throws Exception { run(); }
 
     public static Path run() throws Exception {
-        List<Path> inputs = findInputs();
-        if (inputs.isEmpty()) throw new IllegalStateException("No ass_3_input_*.json found");
-
-        Bundle bundle = new Bundle();
-
-        for (Path p : inputs) {
-            JsonObject root = readJson(p);
-            JsonArray graphs = root.getAsJsonArray("graphs");
-            if (graphs == null || graphs.size() == 0) continue;
-
-            for (JsonElement ge : graphs) {
-                JsonObject gObj = ge.getAsJsonObject();
-                JsonArray nodes = gObj.getAsJsonArray("nodes");
-                JsonArray edges = gObj.getAsJsonArray("edges");
-                int V = nodes.size();
-                int M = edges.size();
-                int expected = Math.max(0, V - 1);
-
-                Graph g = new Graph();
-                for (JsonElement ee : edges) {
-                    JsonObject e = ee.getAsJsonObject();
-                    g.addEdge(e.get("from").getAsString(), e.get("to").getAsString(), e.get("weight").getAsInt());
-                }
-
-
-                long t1 = System.nanoTime();
-                AlgoResult pr = Prim.findMST(g, nodes.get(0).getAsString());
-                long t2 = System.nanoTime();
-
-                AlgoResult kr = Kruskal.findMST(g);
-                long t3 = System.nanoTime();
-
-                double primMs    = (t2 - t1) / 1_000_000.0;
-                double kruskalMs = (t3 - t2) / 1_000_000.0;
-
-                int primEdgesCnt     = pr.edges.size();
-                int kruskalEdgesCnt  = kr.edges.size();
-                int primCost         = sumWeight(pr.edges);
-                int kruskalCost      = sumWeight(kr.edges);
-
-                boolean primConn     = (primEdgesCnt == expected);
-                boolean krusConn     = (kruskalEdgesCnt == expected);
-                boolean connected    = primConn && krusConn;
-                boolean costsEqual   = connected && (primCost == kruskalCost);
-                String  faster       = connected ? (primMs <= kruskalMs ? "prim" : "kruskal") : "n/a";
-
-                ResultOut r = new ResultOut();
-                r.file = p.getFileName().toString();
-                r.graph_id = gObj.get("id").getAsInt();
-                r.label = gObj.get("label").getAsString();
-
-                r.input_stats.put("vertices", V);
-                r.input_stats.put("edges", M);
-
-                r.prim.execution_time_ms = primMs;
-                r.prim.operations    = Math.max(0L, pr.operations);
-                r.prim.total_cost = primCost;
-                r.prim.connected  = primConn;
-                for (Edge e : pr.edges) r.prim.mst_edges.add(new EdgeOut(e.from, e.to, e.weight));
-
-                r.kruskal.execution_time_ms = kruskalMs;
-                r.kruskal.operations = Math.max(0L, kr.operations);
-                r.kruskal.total_cost = kruskalCost;
-                r.kruskal.connected  = krusConn;
-                for (Edge e : kr.edges) r.kruskal.mst_edges.add(new EdgeOut(e.from, e.to, e.weight));
-
-                r.comparison.put("cost_equal", costsEqual);
-                r.comparison.put("prim_ms", primMs);
-                r.comparison.put("kruskal_ms", kruskalMs);
-                r.comparison.put("faster", faster);
-
-                bundle.results.add(r);
+        Path out = Paths.get("ass_3_output.json");
+        MSTPipeline.run(MSTPipeline.inputs(Paths.get("")), new BatchRunner.Options(), List.of(new Sink(out)));
+        return out;
+    }
+
+    static class Sink implements ResultSink {
+        private final JsonWriter json;
+        private final EdgeMode mode;
+        private final int edgesOver;
+
+        Sink(Path out) throws IOException { this(out, EdgeMode.FULL, 0); }
+
+        Sink(Path out, EdgeMode mode, int edgesOver) throws IOException {
+            this(open(out), mode, edgesOver);
+        }
+
+        // the same bundle on any stream, e.g. an MSTServer response; close() closes out
+        Sink(Writer out, EdgeMode mode, int edgesOver) throws IOException {
+            this.mode = mode;
+            this.edgesOver = edgesOver;
+            json = new JsonWriter(out);
+            json.setIndent("  ");
+            json.setHtmlSafe(true);
+            json.beginObject().name("results").beginArray();
+        }
+
+        private static Writer open(Path out) throws IOException {
+            OutputStream os = Files.newOutputStream(out);
+            if (out.getFileName().toString().endsWith(".gz")) os = new GZIPOutputStream(os, 1 << 16);
+            return new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), 1 << 16);
+        }
+
+        @Override public void accept(SolvedGraph r) throws IOException {
+            json.beginObject();
+            json.name("file").value(r.file);
+            json.name("graph_id").value(r.item.id);
+            if (r.item.label != null) json.name("label").value(r.item.label);
+
+            json.name("input_stats").beginObject()
+                .name("vertices").value(r.vertices())
+                .name("edges").value(r.edges())
+                .endObject();
+
+            EdgeMode m = r.vertices() > edgesOver ? mode : EdgeMode.FULL;
+            if (r.prim != null) algo("prim", r, r.prim, r.primMs, m);
+            algo("kruskal", r, r.kruskal, r.kruskalMs, m);
+            if (r.boruvka != null) algo("boruvka", r, r.boruvka, r.boruvkaMs, m);
+            if (r.forest != null) forest(r.forest);
+
+            json.name("comparison").beginObject().name("cost_equal").value(r.costsEqual());
+            if (r.prim != null) json.name("prim_ms").value(r.primMs);
+            json.name("kruskal_ms").value(r.kruskalMs);
+            if (r.boruvka != null) json.name("boruvka_ms").value(r.boruvkaMs);
+            json.name("faster").value(r.faster()).endObject();
+            if (r.verification != null) verification(r.verification, r.verifyMs);
+            json.endObject();
+            json.flush();
+        }
+
+        private void algo(String name, SolvedGraph s, AlgoResult res, double ms, EdgeMode m) throws IOException {
+            json.name(name).beginObject();
+            json.name("execution_time_ms").value(ms);
+            json.name("operations").value(Math.max(0L, res.operations));
+            json.name("total_cost").value(SolvedGraph.cost(res));
+            json.name("connected").value(s.spans(res));
+            if (res.metrics != null) {
+                json.name("metrics").beginObject();
+                for (var e : res.metrics.toMap().entrySet()) json.name(e.getKey()).value(e.getValue());
+                json.endObject();
             }
+            if (m != EdgeMode.NONE) {
+                json.name(m == EdgeMode.FULL ? "mst_edges" : "mst_edges_compact").beginArray();
+                MSTTree t = res.tree;
+                // a tree's names are read straight from the graph, without an Edge per row
+                if (t != null) for (int i = 0; i < t.size(); i++) edge(m, t.name(t.u(i)), t.name(t.v(i)), t.weight(i));
+                else for (Edge e : res.edges) edge(m, e.from, e.to, e.weight);
+                json.endArray();
+            }
+            json.endObject();
         }
 
-        Path out = Paths.get("ass_3_output.json");
-        try (BufferedWriter w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
-            new GsonBuilder().setPrettyPrinting().create().toJson(bundle, w);
+        // FULL writes {from, to, weight} objects, COMPACT [from, to, weight] triples without the key names
+        private void edge(EdgeMode m, String from, String to, int weight) throws IOException {
+            if (m == EdgeMode.FULL) json.beginObject().name("from").value(from).name("to").value(to).name("weight").value(weight).endObject();
+            else json.beginArray().value(from).value(to).value(weight).endArray();
         }
-        return out;
-    }
 
-    private static List<Path> findInputs() throws IOException {
-        Path root = Paths.get("").toAbsolutePath();
-        try (var s = Files.walk(root, 2)) {
-            return s.filter(p -> {
-                String name = p.getFileName().toString();
-                return name.startsWith("ass_3_input_") && name.endsWith(".json");
-            }).sorted().collect(Collectors.toList());
+        // the certificate of a verified batch, with the first violations when it failed
+        private void verification(MSTVerifier.Report v, double ms) throws IOException {
+            json.name("verification").beginObject()
+                .name("minimum").value(v.ok())
+                .name("verify_ms").value(ms)
+                .name("trees").value(v.trees)
+                .name("violations").value(v.violationCount);
+            if (!v.ok()) {
+                json.name("problems").beginArray();
+                for (String p : v.problems) json.value(p);
+                for (MSTVerifier.Violation x : v.violations) json.value(x.toString());
+                json.endArray();
+            }
+            json.endObject();
         }
-    }
-    private static JsonObject readJson(Path p) throws IOException {
-        try (Reader r = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
-            return JsonParser.parseReader(r).getAsJsonObject();
+
+        // component summary of a disconnected graph; the tree edges are the kruskal mst_edges
+        private void forest(SpanningForest f) throws IOException {
+            json.name("forest").beginObject()
+                .name("components").value(f.components())
+                .name("total_cost").value(f.cost());
+            json.name("trees").beginArray();
+            for (SpanningForest.Tree t : f.trees) {
+                json.beginObject().name("root").value(t.root).name("vertices").value(t.vertices)
+                    .name("cost").value(t.cost).endObject();
+            }
+            json.endArray().endObject();
+        }
+
+        @Override public void close() throws IOException {
+            json.endArray().endObject();
+            json.close();
         }
     }
-    private static int sumWeight(List<Edge> es){ int s=0; for (Edge e: es) s+=e.weight; return s; }
 }
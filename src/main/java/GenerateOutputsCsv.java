@@ -1,119 +1,105 @@
 // src/main/java/GenerateOutputsCsv.java
-import com.google.gson.*;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class GenerateOutputsCsv {
 
     public static void main(String[] args) throws Exception { run(); }
 
     public static Path run() throws Exception {
-        List<Path> inputs = findInputs();
-        if (inputs.isEmpty()) throw new IllegalStateException("No ass_3_input_*.json found");
-
         Path outPath = Paths.get("target", "ass_3_output_table.csv");
-        Files.createDirectories(outPath.getParent());
+        MSTPipeline.run(MSTPipeline.inputs(Paths.get("")), new BatchRunner.Options(), List.of(new Sink(outPath)));
+        return outPath;
+    }
 
-        try (BufferedWriter w = Files.newBufferedWriter(outPath, StandardCharsets.UTF_8)) {
+    // writes the header on open and one row per result
+    static class Sink implements ResultSink {
+        private final BufferedWriter w;
+
+        Sink(Path outPath) throws IOException {
+            Files.createDirectories(outPath.toAbsolutePath().getParent());
+            w = Files.newBufferedWriter(outPath, StandardCharsets.UTF_8);
             w.write(String.join(",",
                     "file","graph_id","label",
                     "vertices","edges_count","expected_mst_edges",
                     "prim_cost","prim_edges","prim_ops","prim_time_ms",
                     "kruskal_cost","kruskal_edges","kruskal_ops","kruskal_time_ms",
+                    "boruvka_cost","boruvka_edges","boruvka_ops","boruvka_time_ms",
                     "faster",
                     "connected","costs_equal"
             ));
             w.newLine();
+        }
 
-            for (Path p : inputs) {
-                JsonObject root = readJson(p);
-                JsonArray graphs = root.getAsJsonArray("graphs");
-                if (graphs == null || graphs.size() == 0) continue;
+        private final RowEncoder row = new RowEncoder();
 
-                for (JsonElement ge : graphs) {
-                    JsonObject gObj = ge.getAsJsonObject();
-                    JsonArray nodes = gObj.getAsJsonArray("nodes");
-                    JsonArray edges = gObj.getAsJsonArray("edges");
-                    int V = nodes.size();
-                    int M = edges.size();
-                    int expected = Math.max(0, V - 1);
+        @Override public void accept(SolvedGraph r) throws IOException {
+            row.field(r.file).field(r.item.id).field(r.item.label)
+               .field(r.vertices()).field(r.edges()).field(r.expectedEdges());
+            engine(r.prim, r.primMs);
+            engine(r.kruskal, r.kruskalMs);
+            engine(r.boruvka, r.boruvkaMs);
+            row.field(r.faster()).field(r.connected() ? "1" : "0").field(r.costsEqual() ? "1" : "0")
+               .writeTo(w);
+        }
 
-                    Graph g = new Graph();
-                    for (JsonElement ee : edges) {
-                        JsonObject e = ee.getAsJsonObject();
-                        g.addEdge(e.get("from").getAsString(), e.get("to").getAsString(), e.get("weight").getAsInt());
-                    }
+        // an engine a verified batch skipped leaves its four cells empty
+        private void engine(AlgoResult a, double ms) {
+            if (a == null) { for (int i = 0; i < 4; i++) row.field((String) null); return; }
+            row.field(SolvedGraph.cost(a)).field(a.edges.size()).field(Math.max(0, a.operations)).fieldMs7(ms);
+        }
 
-                    long t1 = System.nanoTime();
-                    AlgoResult pr = Prim.findMST(g, nodes.get(0).getAsString());
-                    long t2 = System.nanoTime();
-                    AlgoResult kr = Kruskal.findMST(g);
-                    long t3 = System.nanoTime();
+        @Override public void close() throws IOException { w.close(); }
+    }
 
-                    double primMs    = (t2 - t1) / 1_000_000.0;
-                    double kruskalMs = (t3 - t2) / 1_000_000.0;
+    // builds one quoted CSV row in a reused buffer; numbers are appended without going through String
+    static final class RowEncoder {
+        private static final String NEWLINE = System.lineSeparator();
+        private final StringBuilder b = new StringBuilder(256);
+        private char[] out = new char[256];
 
-                    int primEdgesCnt     = pr.edges.size();
-                    int kruskalEdgesCnt  = kr.edges.size();
-                    int primCost         = sumWeight(pr.edges);
-                    int kruskalCost      = sumWeight(kr.edges);
+        RowEncoder field(String s) {
+            sep().append('"');
+            if (s != null) {
+                if (s.indexOf('"') < 0) b.append(s);
+                else for (int i = 0; i < s.length(); i++) { char c = s.charAt(i); if (c == '"') b.append('"'); b.append(c); }
+            }
+            b.append('"');
+            return this;
+        }
 
-                    boolean primConn     = (primEdgesCnt == expected);
-                    boolean krusConn     = (kruskalEdgesCnt == expected);
-                    boolean connected    = primConn && krusConn;
-                    boolean costsEqual   = connected && (primCost == kruskalCost);
-                    String faster        = connected ? (primMs <= kruskalMs ? "prim" : "kruskal") : "n/a";
+        RowEncoder field(long x) { sep().append('"').append(x).append('"'); return this; }
 
-                    String[] row = new String[] {
-                            csv(p.getFileName().toString()),
-                            csv(String.valueOf(gObj.get("id").getAsInt())),
-                            csv(gObj.get("label").getAsString()),
-                            csv(String.valueOf(V)),
-                            csv(String.valueOf(M)),
-                            csv(String.valueOf(expected)),
-                            csv(String.valueOf(primCost)),
-                            csv(String.valueOf(primEdgesCnt)),
-                            csv(String.valueOf(Math.max(0, pr.operations))),
-                            csv(fmtMs7(primMs)),
-                            csv(String.valueOf(kruskalCost)),
-                            csv(String.valueOf(kruskalEdgesCnt)),
-                            csv(String.valueOf(Math.max(0, kr.operations))),
-                            csv(fmtMs7(kruskalMs)),
-                            csv(faster),
-                            csv(connected ? "1" : "0"),
-                            csv(costsEqual ? "1" : "0")
-                    };
-                    w.write(String.join(",", row));
-                    w.newLine();
-                }
+        // same digits as String.format("%.7f") up to rounding of the last one
+        RowEncoder fieldMs7(double ms) {
+            sep().append('"');
+            if (ms >= 0 && ms < 1e11) {
+                long v = Math.round(ms * 1e7);
+                b.append(v / 10_000_000).append('.');
+                String frac = Long.toString(v % 10_000_000);
+                for (int i = frac.length(); i < 7; i++) b.append('0');
+                b.append(frac);
+            } else {
+                b.append(String.format(java.util.Locale.US, "%.7f", ms));
             }
+            b.append('"');
+            return this;
         }
-        return Paths.get("target", "ass_3_output_table.csv");
-    }
 
-    private static List<Path> findInputs() throws IOException {
-        Path root = Paths.get("").toAbsolutePath();
-        try (var s = Files.walk(root, 2)) {
-            return s.filter(p -> {
-                String name = p.getFileName().toString();
-                return name.startsWith("ass_3_input_") && name.endsWith(".json");
-            }).sorted().collect(Collectors.toList());
+        void writeTo(Writer w) throws IOException {
+            b.append(NEWLINE);
+            int n = b.length();
+            if (n > out.length) out = new char[Math.max(n, out.length << 1)];
+            b.getChars(0, n, out, 0);
+            w.write(out, 0, n);
+            b.setLength(0);
         }
-    }
-    private static JsonObject readJson(Path p) throws IOException {
-        try (Reader r = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
-            return JsonParser.parseReader(r).getAsJsonObject();
+
+        private StringBuilder sep() {
+            if (b.length() > 0) b.append(',');
+            return b;
         }
     }
-    private static int sumWeight(List<Edge> es){ int s=0; for (Edge e: es) s+=e.weight; return s; }
-    private static String fmtMs7(double ms){ return String.format(java.util.Locale.US, "%.7f", ms); }
-    private static String csv(String s){
-        if (s==null) return "\"\"";
-        StringBuilder b=new StringBuilder("\"");
-        for (char c: s.toCharArray()) { if (c=='"') b.append("\"\""); else b.append(c); }
-        b.append('"'); return b.toString();
-    }
 }
@@ -1,67 +1,225 @@
-
 import java.util.*;
 
+// Vertices keep stable ids in order of first appearance; edges are (u < v, w) int triples in insertion order. Once
+// built, the CSR adjacency is updated in place, so appending an edge costs amortized O(1).
 public class Graph {
-    private final Map<String, List<Edge>> adj = new HashMap<>();
-    private final List<Edge> edgesUnique = new ArrayList<>();
-    private final Set<String> seenUndirected = new HashSet<>();
+    private final Map<String,Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final Map<String,Integer> index = Collections.unmodifiableMap(ids);
+    private final List<String> vertexList = Collections.unmodifiableList(names);
+    private LongIntMap edgeAt = new LongIntMap(16);
+    private int[] eu = new int[16], ev = new int[16], ew = new int[16];
+    private int m = 0;
+    private boolean shared = false; // eu/ev/ew were handed out, so slots below m must not be written
+
+    // CSR with slack: v's neighbours are targets/weights[start[v] .. end[v]), its segment may grow up to limit[v];
+    // segments that fill up move to tail. null until first asked for
+    private int[] start = null, end = null, limit = null, targets = null, weights = null;
+    private int tail = 0;
+    private List<String> sorted = List.of();
+
+    // adopts already deduplicated edges over vertices[u[i]], vertices[v[i]] for i < m without copying the arrays;
+    // ids follow the order of vertices
+    static Graph fromEdges(List<String> vertices, int[] u, int[] v, int[] w) { return fromEdges(vertices, u, v, w, u.length); }
 
-    private Map<String,Integer> index = null;
-    private List<String> vertexList = null;
-    private List<int[]>[] adjInt = null;
-    private List<int[]> edgesUniqueInt = null;
+    static Graph fromEdges(List<String> vertices, int[] u, int[] v, int[] w, int m) {
+        Graph g = new Graph();
+        for (String name : vertices) g.idOf(name);
+        for (int i = 0; i < m; i++) if (u[i] > v[i]) { int t = u[i]; u[i] = v[i]; v[i] = t; }
+        g.eu = u; g.ev = v; g.ew = w; g.m = m;
+        g.edgeAt = null;
+        return g;
+    }
 
     public void addEdge(String a, String b, int w) {
-        adj.putIfAbsent(a, new ArrayList<>()); adj.putIfAbsent(b, new ArrayList<>());
-        adj.get(a).add(new Edge(a, b, w));     adj.get(b).add(new Edge(b, a, w));
-        String key = a.compareTo(b) < 0 ? a + "#" + b : b + "#" + a;
-        if (seenUndirected.add(key)) {
-            boolean ab = a.compareTo(b) < 0;
-            String from = ab ? a : b;
-            String to   = ab ? b : a;
-            edgesUnique.add(new Edge(from, to, w));
+        ensureEdgeKeys();
+        int ia = idOf(a), ib = idOf(b);
+        if (edgeAt.putIfAbsent(LongIntMap.pair(ia, ib), m) != LongIntMap.MISSING) return;
+        // appends write slot m, which no handed-out snapshot covers
+        if (m == eu.length) {
+            int cap = Math.max(16, m << 1);
+            eu = Arrays.copyOf(eu, cap); ev = Arrays.copyOf(ev, cap); ew = Arrays.copyOf(ew, cap);
+            shared = false;
         }
-        index = null; vertexList = null; adjInt = null; edgesUniqueInt = null;
-    }
-
-    public Set<String> getVertices() { return adj.keySet(); }
-    public List<Edge> neighbors(String v) { return adj.getOrDefault(v, Collections.emptyList()); }
-    public List<Edge> getEdgesUnique() { return edgesUnique; }
-    public boolean isEmpty() { return adj.isEmpty(); }
-
-    public Map<String,Integer> getIndex() { ensureIndexed(); return index; }
-    public List<String> getVertexList() { ensureIndexed(); return vertexList; }
-    public List<int[]> neighborsInt(int vid) { ensureIndexed(); return adjInt[vid]; }
-    public List<int[]>[] getAdjInt() { ensureIndexed(); return adjInt; }
-    public List<int[]> getEdgesUniqueInt() { ensureIndexed(); return edgesUniqueInt; }
-
-    private void ensureIndexed() {
-        if (index != null) return;
-        vertexList = new ArrayList<>(adj.keySet());
-        Collections.sort(vertexList);
-        index = new HashMap<>(vertexList.size() * 2);
-        for (int i = 0; i < vertexList.size(); i++) index.put(vertexList.get(i), i);
-
-        int n = vertexList.size();
-        adjInt = new ArrayList[n];
-        for (int i = 0; i < n; i++) adjInt[i] = new ArrayList<>();
-
-        for (int i = 0; i < n; i++) {
-            String from = vertexList.get(i);
-            List<Edge> list = adj.getOrDefault(from, Collections.emptyList());
-            for (Edge e : list) {
-                int to = index.get(e.to);
-                adjInt[i].add(new int[]{to, e.weight});
-            }
+        eu[m] = Math.min(ia, ib); ev[m] = Math.max(ia, ib); ew[m] = w; m++;
+        if (start != null && addHalf(ia, ib, w)) addHalf(ib, ia, w);
+    }
+
+    // removes the undirected edge a-b; the last edge takes its slot, vertices stay
+    public boolean removeEdge(String a, String b) {
+        Integer ia = ids.get(a), ib = ids.get(b);
+        if (ia == null || ib == null) return false;
+        ensureEdgeKeys();
+        int i = edgeAt.remove(LongIntMap.pair(ia, ib));
+        if (i == LongIntMap.MISSING) return false;
+        if (shared) { eu = eu.clone(); ev = ev.clone(); ew = ew.clone(); shared = false; }
+        int last = --m;
+        if (i != last) {
+            eu[i] = eu[last]; ev[i] = ev[last]; ew[i] = ew[last];
+            edgeAt.put(LongIntMap.pair(eu[i], ev[i]), i);
         }
+        if (start != null) { removeHalf(ia, ib); removeHalf(ib, ia); }
+        return true;
+    }
 
-        edgesUniqueInt = new ArrayList<>(edgesUnique.size());
-        for (Edge e : edgesUnique) {
-            int u = index.get(e.from);
-            int v = index.get(e.to);
-            int w = e.weight;
-            if (u > v) { int tmp = u; u = v; v = tmp; }
-            edgesUniqueInt.add(new int[]{u, v, w});
+    // slot of the edge a-b in getEdgeU/V/W, or -1 when there is none
+    public int edgeIndex(String a, String b) {
+        Integer ia = ids.get(a), ib = ids.get(b);
+        if (ia == null || ib == null) return -1;
+        ensureEdgeKeys();
+        return edgeAt.get(LongIntMap.pair(ia, ib));
+    }
+
+    private void ensureEdgeKeys() {
+        if (edgeAt != null) return;
+        edgeAt = new LongIntMap(m);
+        for (int i = 0; i < m; i++) edgeAt.put(LongIntMap.pair(eu[i], ev[i]), i);
+    }
+
+    private int idOf(String v) {
+        Integer id = ids.get(v);
+        if (id != null) return id;
+        ids.put(v, names.size());
+        names.add(v);
+        return names.size() - 1;
+    }
+
+    public Set<String> getVertices() { return index.keySet(); }
+    public boolean isEmpty() { return names.isEmpty(); }
+    public int vertexCount() { return names.size(); }
+    public int edgeCount() { return m; }
+
+    // id of every vertex name, and the name of every id
+    public Map<String,Integer> getIndex() { return index; }
+    public List<String> getVertexList() { return vertexList; }
+
+    // the vertex names in String order; only names added since the last call are sorted
+    public List<String> getSortedVertexList() {
+        int have = sorted.size(), n = names.size();
+        if (have == n) return sorted;
+        String[] add = names.subList(have, n).toArray(new String[0]);
+        Arrays.sort(add);
+        List<String> merged = new ArrayList<>(n);
+        int i = 0, j = 0;
+        while (i < have && j < add.length) merged.add(sorted.get(i).compareTo(add[j]) <= 0 ? sorted.get(i++) : add[j++]);
+        while (i < have) merged.add(sorted.get(i++));
+        while (j < add.length) merged.add(add[j++]);
+        return sorted = Collections.unmodifiableList(merged);
+    }
+
+    // CSR adjacency: neighbours of v are targets/weights[offsets[v] .. ends[v]); the arrays change with the graph
+    public int[] getOffsets() { ensureAdjacency(); return start; }
+    public int[] getEnds() { ensureAdjacency(); return end; }
+    public int[] getTargets() { ensureAdjacency(); return targets; }
+    public int[] getWeights() { ensureAdjacency(); return weights; }
+
+    // the pre-CSR accessors, as live read-only views over the arrays. Every element is built on access, so hot loops
+    // read getOffsets/getEnds/getTargets/getWeights and getEdgeU/V/W instead
+    public List<Edge> neighbors(String v) {
+        Integer id = ids.get(v);
+        return id == null ? List.of() : new Neighbours<>(id, (to, w) -> new Edge(v, names.get(to), w));
+    }
+    public List<int[]> neighborsInt(int vid) {
+        Objects.checkIndex(vid, names.size());
+        return new Neighbours<>(vid, (to, w) -> new int[]{to, w});
+    }
+    @SuppressWarnings("unchecked")
+    public List<int[]>[] getAdjInt() {
+        List<int[]>[] adj = new List[names.size()];
+        for (int v = 0; v < adj.length; v++) adj[v] = neighborsInt(v);
+        return adj;
+    }
+    // endpoints in String order, as the name-keyed edge list had them
+    public List<Edge> getEdgesUnique() {
+        return new Edges<>((u, v, w) -> {
+            String a = names.get(u), b = names.get(v);
+            return a.compareTo(b) < 0 ? new Edge(a, b, w) : new Edge(b, a, w);
+        });
+    }
+    public List<int[]> getEdgesUniqueInt() { return new Edges<>((u, v, w) -> new int[]{u, v, w}); }
+
+    private interface HalfEdge<T> { T of(int to, int w); }
+    private interface FullEdge<T> { T of(int u, int v, int w); }
+
+    private final class Neighbours<T> extends AbstractList<T> implements RandomAccess {
+        private final int v;
+        private final HalfEdge<T> make;
+        Neighbours(int v, HalfEdge<T> make) { this.v = v; this.make = make; }
+        @Override public T get(int i) {
+            Objects.checkIndex(i, size());
+            int at = start[v] + i;
+            return make.of(targets[at], weights[at]);
+        }
+        @Override public int size() { ensureAdjacency(); return v < start.length ? end[v] - start[v] : 0; }
+    }
+
+    private final class Edges<T> extends AbstractList<T> implements RandomAccess {
+        private final FullEdge<T> make;
+        Edges(FullEdge<T> make) { this.make = make; }
+        @Override public T get(int i) { Objects.checkIndex(i, m); return make.of(eu[i], ev[i], ew[i]); }
+        @Override public int size() { return m; }
+    }
+
+    // unique undirected edges in insertion order (a removed edge's slot goes to the last one), edgeU[i] < edgeV[i]
+    // for i < edgeCount(). The arrays may be longer; later appends never write below the count they were read at
+    public int[] getEdgeU() { shared = true; return eu; }
+    public int[] getEdgeV() { shared = true; return ev; }
+    public int[] getEdgeW() { shared = true; return ew; }
+
+    private void ensureAdjacency() {
+        if (start == null) layout(false);
+    }
+
+    // lays the CSR out again from the edges; with slack every segment gets room for as many edges again and the
+    // arrays for as many segments again, so the next layout is at least ~m appends away
+    private void layout(boolean slack) {
+        int n = names.size();
+        int[] st = new int[Math.max(n, 1)], en = new int[st.length], lim = new int[st.length];
+        for (int i = 0; i < m; i++) { en[eu[i]]++; en[ev[i]]++; }
+        int total = 0;
+        for (int v = 0; v < n; v++) {
+            int deg = en[v];
+            st[v] = en[v] = total;
+            total += slack ? Math.max(2, deg << 1) : deg;
+            lim[v] = total;
+        }
+        int[] tgt = new int[slack ? total << 1 : total], wt = new int[tgt.length];
+        for (int i = 0; i < m; i++) {
+            int u = eu[i], v = ev[i], w = ew[i];
+            tgt[en[u]] = v; wt[en[u]++] = w;
+            tgt[en[v]] = u; wt[en[v]++] = w;
+        }
+        start = st; end = en; limit = lim; targets = tgt; weights = wt;
+        tail = total;
+    }
+
+    // false when the CSR was laid out again instead, which already covers the newest edge
+    private boolean addHalf(int v, int to, int w) {
+        if (v >= start.length) {
+            int cap = Math.max(v + 1, start.length << 1);
+            start = Arrays.copyOf(start, cap); end = Arrays.copyOf(end, cap); limit = Arrays.copyOf(limit, cap);
+        }
+        if (end[v] == limit[v]) {
+            int deg = end[v] - start[v], cap = Math.max(2, deg << 1);
+            if (tail + cap > targets.length) {
+                layout(true);
+                return false;
+            }
+            System.arraycopy(targets, start[v], targets, tail, deg);
+            System.arraycopy(weights, start[v], weights, tail, deg);
+            start[v] = tail; end[v] = tail + deg; limit[v] = tail + cap;
+            tail += cap;
         }
+        targets[end[v]] = to; weights[end[v]++] = w;
+        return true;
+    }
+
+    // keeps the other neighbours in order
+    private void removeHalf(int v, int to) {
+        int i = start[v], e = end[v];
+        while (targets[i] != to) i++;
+        System.arraycopy(targets, i + 1, targets, i, e - i - 1);
+        System.arraycopy(weights, i + 1, weights, i, e - i - 1);
+        end[v] = e - 1;
     }
 }
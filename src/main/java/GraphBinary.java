@@ -0,0 +1,250 @@
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Little-endian binary container for the ass_3_input_*.json shape: header, per-graph int sections,
+// a shared name dictionary and a per-graph index.
+public class GraphBinary implements Closeable {
+    static final int MAGIC = 0x4D535447; // "MSTG"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int INDEX_ENTRY_BYTES = 32;
+
+    private final FileChannel ch;
+    private final int graphCount;
+    private final int[] graphIds;
+    private final Map<Integer,Integer> entryById;
+    private final MappedByteBuffer index;
+    private final MappedByteBuffer dictOffsets;
+    private final MappedByteBuffer dictBytes;
+    private final String[] names;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) throw new IllegalArgumentException("usage: GraphBinary <input.json> <output.bin>");
+        convert(Paths.get(args[0]), Paths.get(args[1]));
+    }
+
+    private GraphBinary(Path p) throws IOException {
+        ch = FileChannel.open(p, StandardOpenOption.READ);
+        ByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt() != MAGIC) throw new IOException("not a graph binary: " + p);
+        int version = header.getInt();
+        if (version != VERSION) throw new IOException("unsupported graph binary version " + version);
+        graphCount = header.getInt();
+        int dictCount = header.getInt();
+        long dictOffset = header.getLong();
+        long indexOffset = header.getLong();
+
+        index = map(indexOffset, (long) graphCount * INDEX_ENTRY_BYTES);
+        dictOffsets = map(dictOffset, 4L * (dictCount + 1));
+        dictBytes = map(dictOffset + 4L * (dictCount + 1), dictOffsets.getInt(4 * dictCount));
+        names = new String[dictCount];
+
+        graphIds = new int[graphCount];
+        entryById = new HashMap<>(graphCount * 2);
+        for (int i = 0; i < graphCount; i++) {
+            graphIds[i] = index.getInt(i * INDEX_ENTRY_BYTES);
+            entryById.putIfAbsent(graphIds[i], i);
+        }
+    }
+
+    public static GraphBinary open(Path p) throws IOException { return new GraphBinary(p); }
+
+    public int size() { return graphCount; }
+    public int[] ids() { return graphIds.clone(); }
+
+    public GraphReader.Item load(int id) throws IOException { return loadAt(entry(id)); }
+
+    public GraphReader.Item loadAt(int entry) throws IOException {
+        int base = entry * INDEX_ENTRY_BYTES;
+        int id = index.getInt(base);
+        int nodeCount = index.getInt(base + 4);
+        int n = index.getInt(base + 8);
+        int m = index.getInt(base + 12);
+        int inputEdges = index.getInt(base + 16);
+        int labelId = index.getInt(base + 20);
+        long section = index.getLong(base + 24);
+
+        IntBuffer ints = map(section, 4L * ((long) nodeCount + n + 3L * m)).asIntBuffer();
+        int[] nodeIds = new int[nodeCount], vertexIds = new int[n];
+        int[] u = new int[m], v = new int[m], w = new int[m];
+        ints.get(nodeIds).get(vertexIds).get(u).get(v).get(w);
+
+        List<String> nodes = new ArrayList<>(nodeCount);
+        for (int d : nodeIds) nodes.add(name(d));
+        List<String> vertices = new ArrayList<>(n);
+        for (int d : vertexIds) vertices.add(name(d));
+        return new GraphReader.Item(id, name(labelId), nodes, inputEdges, Graph.fromEdges(vertices, u, v, w));
+    }
+
+    // vertex names of a graph in id order, without reading its edges
+    public List<String> vertices(int id) throws IOException {
+        int base = entry(id) * INDEX_ENTRY_BYTES;
+        int nodeCount = index.getInt(base + 4), n = index.getInt(base + 8);
+        IntBuffer ints = map(index.getLong(base + 24) + 4L * nodeCount, 4L * n).asIntBuffer();
+        List<String> vertices = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) vertices.add(name(ints.get(i)));
+        return vertices;
+    }
+
+    // streams a graph's u/v/w columns through three direct buffers of about bufferBytes / 3 each, so a graph
+    // larger than memory can feed ExternalKruskal
+    public EdgeStream edges(int id, int bufferBytes) throws IOException {
+        int base = entry(id) * INDEX_ENTRY_BYTES;
+        int nodeCount = index.getInt(base + 4), n = index.getInt(base + 8), m = index.getInt(base + 12);
+        long u = index.getLong(base + 24) + 4L * (nodeCount + n);
+        return new EdgeStream(ch, m, new long[]{u, u + 4L * m, u + 8L * m}, Math.max(4096, bufferBytes / 3));
+    }
+
+    private int entry(int id) {
+        Integer entry = entryById.get(id);
+        if (entry == null) throw new NoSuchElementException("no graph with id " + id);
+        return entry;
+    }
+
+    public static final class EdgeStream implements ExternalKruskal.EdgeSource {
+        private final FileChannel ch;
+        private final long[] pos;
+        private final ByteBuffer[] col = new ByteBuffer[3];
+        private long left;
+
+        EdgeStream(FileChannel ch, long m, long[] pos, int bufferBytes) {
+            this.ch = ch;
+            this.pos = pos;
+            this.left = m;
+            for (int c = 0; c < 3; c++) {
+                col[c] = ByteBuffer.allocateDirect(bufferBytes & ~3).order(ByteOrder.LITTLE_ENDIAN);
+                col[c].flip();
+            }
+        }
+
+        @Override public int read(int[] u, int[] v, int[] w, int off, int max) throws IOException {
+            int k = (int) Math.min(max, left);
+            if (k == 0) return 0;
+            for (int c = 0; c < 3; c++) {
+                ByteBuffer b = col[c];
+                if (!b.hasRemaining()) {
+                    b.clear();
+                    b.limit((int) Math.min(b.capacity(), 4 * left));
+                    while (b.hasRemaining()) {
+                        int r = ch.read(b, pos[c]);
+                        if (r < 0) throw new EOFException("truncated graph binary");
+                        pos[c] += r;
+                    }
+                    b.flip();
+                }
+                k = Math.min(k, b.remaining() >> 2);
+            }
+            for (int i = off; i < off + k; i++) {
+                u[i] = col[0].getInt(); v[i] = col[1].getInt(); w[i] = col[2].getInt();
+            }
+            left -= k;
+            return k;
+        }
+    }
+
+    private String name(int d) {
+        String s = names[d];
+        if (s != null) return s;
+        int from = dictOffsets.getInt(4 * d), to = dictOffsets.getInt(4 * (d + 1));
+        byte[] bytes = new byte[to - from];
+        dictBytes.get(from, bytes);
+        return names[d] = new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private MappedByteBuffer map(long offset, long size) throws IOException {
+        MappedByteBuffer b = ch.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        b.order(ByteOrder.LITTLE_ENDIAN);
+        return b;
+    }
+
+    @Override public void close() throws IOException { ch.close(); }
+
+    public static void convert(Path json, Path out) throws IOException {
+        VertexDictionary dict = new VertexDictionary();
+        ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        int graphCount = 0;
+
+        try (FileChannel ch = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             GraphReader reader = GraphReader.open(json)) {
+            Writer w = new Writer(ch, HEADER_BYTES);
+            while (reader.hasNext()) {
+                GraphReader.Item item = reader.next();
+                Graph g = item.graph;
+                List<String> vertices = g.getVertexList();
+                long section = w.position();
+                for (String s : item.nodes) w.putInt(dict.intern(s));
+                for (String s : vertices) w.putInt(dict.intern(s));
+                int[] eu = g.getEdgeU(), ev = g.getEdgeV(), ew = g.getEdgeW();
+                for (int i = 0; i < g.edgeCount(); i++) w.putInt(eu[i]);
+                for (int i = 0; i < g.edgeCount(); i++) w.putInt(ev[i]);
+                for (int i = 0; i < g.edgeCount(); i++) w.putInt(ew[i]);
+
+                ByteBuffer e = ByteBuffer.allocate(INDEX_ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                e.putInt(item.id).putInt(item.nodes.size()).putInt(vertices.size()).putInt(g.edgeCount())
+                 .putInt(item.edgeCount).putInt(dict.intern(item.label)).putLong(section);
+                indexBytes.write(e.array());
+                graphCount++;
+            }
+
+            long dictOffset = w.position();
+            int off = 0;
+            w.putInt(0);
+            List<byte[]> encoded = new ArrayList<>(dict.size());
+            for (int d = 0; d < dict.size(); d++) {
+                byte[] b = dict.name(d).getBytes(StandardCharsets.UTF_8);
+                encoded.add(b);
+                off += b.length;
+                w.putInt(off);
+            }
+            for (byte[] b : encoded) w.put(b);
+            long indexOffset = w.position();
+            w.put(indexBytes.toByteArray());
+            w.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(graphCount).putInt(dict.size())
+                  .putLong(dictOffset).putLong(indexOffset).flip();
+            while (header.hasRemaining()) ch.write(header, header.position());
+        }
+    }
+
+    // sequential little-endian writer with a large direct buffer
+    static final class Writer {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private long pos;
+
+        Writer(FileChannel ch, long start) { this.ch = ch; this.pos = start; }
+
+        long position() { return pos + buf.position(); }
+
+        void putInt(int x) throws IOException {
+            if (buf.remaining() < 4) flush();
+            buf.putInt(x);
+        }
+
+        void put(byte[] b) throws IOException {
+            for (int i = 0; i < b.length; ) {
+                if (!buf.hasRemaining()) flush();
+                int k = Math.min(buf.remaining(), b.length - i);
+                buf.put(b, i, k);
+                i += k;
+            }
+        }
+
+        void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) pos += ch.write(buf, pos);
+            buf.clear();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+
+import java.util.*;
+
+// Bulk Graph construction over dictionary ids: names are interned once, duplicates are dropped with a
+// primitive (min, max) pair set and build() hands the finished edge arrays to Graph without copying, then starts
+// the builder over on the same dictionary.
+public class GraphBuilder {
+    private final VertexDictionary dict;
+    private LongIntMap seen;
+    private int[] localOf = new int[0];
+    private int[] vertices = new int[16];
+    private int n = 0;
+    private int[] eu, ev, ew;
+    private int m = 0;
+
+    public GraphBuilder() { this(new VertexDictionary(), 16); }
+    public GraphBuilder(VertexDictionary dict) { this(dict, 16); }
+
+    public GraphBuilder(VertexDictionary dict, int expectedEdges) {
+        this.dict = dict;
+        int cap = Math.max(16, expectedEdges);
+        this.seen = new LongIntMap(cap);
+        eu = new int[cap]; ev = new int[cap]; ew = new int[cap];
+    }
+
+    public VertexDictionary dictionary() { return dict; }
+
+    public GraphBuilder addEdge(String a, String b, int w) { return addEdge(dict.intern(a), dict.intern(b), w); }
+
+    // a and b are ids from dictionary()
+    public GraphBuilder addEdge(int a, int b, int w) {
+        if (seen.putIfAbsent(LongIntMap.pair(a, b), m) != LongIntMap.MISSING) return this;
+        if (m == eu.length) {
+            int cap = m << 1;
+            eu = Arrays.copyOf(eu, cap); ev = Arrays.copyOf(ev, cap); ew = Arrays.copyOf(ew, cap);
+        }
+        eu[m] = local(a); ev[m] = local(b); ew[m] = w; m++;
+        return this;
+    }
+
+    private int local(int d) {
+        if (d >= localOf.length) {
+            int old = localOf.length;
+            localOf = Arrays.copyOf(localOf, Math.max(d + 1, Math.max(16, old << 1)));
+            Arrays.fill(localOf, old, localOf.length, -1);
+        }
+        int id = localOf[d];
+        if (id >= 0) return id;
+        if (n == vertices.length) vertices = Arrays.copyOf(vertices, n << 1);
+        vertices[n] = d;
+        return localOf[d] = n++;
+    }
+
+    public Graph build() {
+        List<String> names = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) names.add(dict.name(vertices[i]));
+        Graph g = Graph.fromEdges(names, eu, ev, ew, m);
+        // the graph owns the arrays now
+        seen = new LongIntMap(16);
+        localOf = new int[0];
+        vertices = new int[16];
+        eu = new int[16]; ev = new int[16]; ew = new int[16];
+        n = 0; m = 0;
+        return g;
+    }
+}
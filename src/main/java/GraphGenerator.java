@@ -0,0 +1,377 @@
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+// Seeded synthetic er|grid|powerlaw|components graphs streamed to ass_3_input JSON or GraphBinary; output
+// depends on the spec only.   java GraphGenerator <family> --n N [--degree D] [--seed S] [--threads T] out.json|out.bin
+public class GraphGenerator {
+    static final int CHUNK_EDGES = 1 << 18;
+
+    public enum Family { ER, GRID, POWERLAW, COMPONENTS }
+    public enum Weights { UNIFORM, NORMAL, EXPONENTIAL }
+
+    public static final class Spec {
+        public Family family = Family.ER;
+        public int n = 1000;
+        public double degree = 4;
+        public int components = 10;
+        public double gamma = 2.5;
+        public double keep = 0.85;
+        public Weights weights = Weights.UNIFORM;
+        public int minWeight = 1, maxWeight = 100;
+        public long seed = 1;
+        public int id = 1;
+
+        public String label() {
+            String extra = family == Family.COMPONENTS ? ",components=" + components : "";
+            return family.name().toLowerCase(Locale.ROOT) + "(n=" + n + ",degree=" + degree + extra + ",seed=" + seed + ")";
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) throw new IllegalArgumentException("usage: GraphGenerator <family> [options] <out.json|out.bin>");
+        Spec s = new Spec();
+        s.family = Family.valueOf(args[0].toUpperCase(Locale.ROOT));
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path out = null;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--n" -> s.n = Integer.parseInt(args[++i]);
+                case "--degree" -> s.degree = Double.parseDouble(args[++i]);
+                case "--components" -> s.components = Integer.parseInt(args[++i]);
+                case "--gamma" -> s.gamma = Double.parseDouble(args[++i]);
+                case "--keep" -> s.keep = Double.parseDouble(args[++i]);
+                case "--weights" -> s.weights = Weights.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                case "--min" -> s.minWeight = Integer.parseInt(args[++i]);
+                case "--max" -> s.maxWeight = Integer.parseInt(args[++i]);
+                case "--seed" -> s.seed = Long.parseLong(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--id" -> s.id = Integer.parseInt(args[++i]);
+                default -> {
+                    if (args[i].startsWith("--")) throw new IllegalArgumentException("unknown option " + args[i]);
+                    out = Paths.get(args[i]);
+                }
+            }
+        }
+        if (out == null) throw new IllegalArgumentException("no output file");
+        long t0 = System.nanoTime();
+        long m = out.getFileName().toString().endsWith(".bin") ? writeBinary(s, out, threads) : writeJson(s, out, threads);
+        System.out.printf(Locale.US, "%s: %d vertices, %d edges, %d bytes in %.1f s%n", s.label(), s.n, m,
+                Files.size(out), (System.nanoTime() - t0) / 1e9);
+    }
+
+    // edges of one chunk, in generation order; json is filled when the chunk is generated for a JSON file
+    static final class Chunk {
+        int count;
+        int[] u = new int[1024], v = new int[1024], w = new int[1024];
+        byte[] json;
+
+        void add(int a, int b, int wt) {
+            if (count == u.length) {
+                int cap = count << 1;
+                u = Arrays.copyOf(u, cap); v = Arrays.copyOf(v, cap); w = Arrays.copyOf(w, cap);
+            }
+            u[count] = a; v[count] = b; w[count] = wt; count++;
+        }
+    }
+
+    // collects a generated graph in memory, for tests and benchmarks
+    public static Graph generate(Spec s) throws Exception {
+        Chunk all = new Chunk();
+        forEachChunk(s, Runtime.getRuntime().availableProcessors(), false, c -> {
+            for (int i = 0; i < c.count; i++) all.add(c.u[i], c.v[i], c.w[i]);
+        });
+        List<String> names = new ArrayList<>(s.n);
+        for (int i = 0; i < s.n; i++) names.add("v" + i);
+        return Graph.fromEdges(names, Arrays.copyOf(all.u, all.count), Arrays.copyOf(all.v, all.count),
+                Arrays.copyOf(all.w, all.count));
+    }
+
+    // returns the edge count
+    public static long writeJson(Spec s, Path out, int threads) throws Exception {
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(out), 1 << 20)) {
+            write(os, "{\n  \"graphs\": [\n    {\n      \"id\": " + s.id + ",\n      \"label\": \"" + s.label()
+                    + "\",\n      \"nodes\": [");
+            StringBuilder sb = new StringBuilder(1 << 16);
+            for (int i = 0; i < s.n; i++) {
+                if (i > 0) sb.append(',');
+                sb.append("\"v").append(i).append('"');
+                if (sb.length() >= 1 << 16) { write(os, sb.toString()); sb.setLength(0); }
+            }
+            write(os, sb.append("],\n      \"edges\": [").toString());
+            long[] m = {0};
+            forEachChunk(s, threads, true, c -> {
+                try {
+                    if (c.count == 0) return;
+                    if (m[0] > 0) os.write(',');
+                    os.write(c.json);
+                    m[0] += c.count;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            write(os, "\n      ]\n    }\n  ]\n}\n");
+            return m[0];
+        }
+    }
+
+    // one-graph GraphBinary file; the v and w columns are spilled to temp files and appended behind u
+    public static long writeBinary(Spec s, Path out, int threads) throws Exception {
+        Path vTmp = Files.createTempFile(out.toAbsolutePath().getParent(), "gen-v", ".tmp");
+        Path wTmp = Files.createTempFile(out.toAbsolutePath().getParent(), "gen-w", ".tmp");
+        try (FileChannel ch = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ);
+             FileChannel vch = FileChannel.open(vTmp, StandardOpenOption.WRITE, StandardOpenOption.READ);
+             FileChannel wch = FileChannel.open(wTmp, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+            GraphBinary.Writer main = new GraphBinary.Writer(ch, GraphBinary.HEADER_BYTES);
+            long section = main.position();
+            for (int pass = 0; pass < 2; pass++) for (int i = 0; i < s.n; i++) main.putInt(i); // nodes, vertices
+            GraphBinary.Writer vw = new GraphBinary.Writer(vch, 0), ww = new GraphBinary.Writer(wch, 0);
+            long[] m = {0};
+            forEachChunk(s, threads, false, c -> {
+                try {
+                    for (int i = 0; i < c.count; i++) { main.putInt(c.u[i]); vw.putInt(c.v[i]); ww.putInt(c.w[i]); }
+                    m[0] += c.count;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            main.flush(); vw.flush(); ww.flush();
+            long pos = main.position();
+            for (FileChannel col : new FileChannel[]{vch, wch}) {
+                for (long done = 0, size = 4 * m[0]; done < size; ) done += ch.transferFrom(col.position(done), pos + done, size - done);
+                pos += 4 * m[0];
+            }
+
+            // dictionary: the n vertex names, then the label as entry n
+            GraphBinary.Writer d = new GraphBinary.Writer(ch, pos);
+            long dictOffset = pos;
+            byte[] label = s.label().getBytes(StandardCharsets.UTF_8);
+            int off = 0;
+            d.putInt(0);
+            for (int i = 0; i < s.n; i++) { off += 1 + Integer.toString(i).length(); d.putInt(off); }
+            d.putInt(off + label.length);
+            for (int i = 0; i < s.n; i++) d.put(("v" + i).getBytes(StandardCharsets.US_ASCII));
+            d.put(label);
+            long indexOffset = d.position();
+            java.nio.ByteBuffer e = java.nio.ByteBuffer.allocate(GraphBinary.INDEX_ENTRY_BYTES).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+            e.putInt(s.id).putInt(s.n).putInt(s.n).putInt(Math.toIntExact(m[0])).putInt(Math.toIntExact(m[0]))
+             .putInt(s.n).putLong(section);
+            d.put(e.array());
+            d.flush();
+
+            java.nio.ByteBuffer h = java.nio.ByteBuffer.allocate(GraphBinary.HEADER_BYTES).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+            h.putInt(GraphBinary.MAGIC).putInt(GraphBinary.VERSION).putInt(1).putInt(s.n + 1)
+             .putLong(dictOffset).putLong(indexOffset).flip();
+            while (h.hasRemaining()) ch.write(h, h.position());
+            return m[0];
+        } finally {
+            Files.deleteIfExists(vTmp);
+            Files.deleteIfExists(wTmp);
+        }
+    }
+
+    private static void write(OutputStream os, String s) throws IOException { os.write(s.getBytes(StandardCharsets.UTF_8)); }
+
+    // generates the chunks on a pool and hands them to sink in chunk order on the caller's thread
+    static void forEachChunk(Spec s, int threads, boolean json, Consumer<Chunk> sink) throws Exception {
+        List<Callable<Chunk>> plan = plan(s, json);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            ArrayDeque<Future<Chunk>> window = new ArrayDeque<>();
+            int next = 0;
+            while (next < plan.size() || !window.isEmpty()) {
+                while (next < plan.size() && window.size() < 2 * Math.max(1, threads)) window.add(pool.submit(plan.get(next++)));
+                try {
+                    sink.accept(window.poll().get());
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception x ? x : e;
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // one task per chunk; each task owns a generator seeded by (seed, chunk index)
+    private static List<Callable<Chunk>> plan(Spec s, boolean json) {
+        List<Callable<Chunk>> tasks = new ArrayList<>();
+        int n = s.n;
+        switch (s.family) {
+            case ER -> {
+                double p = n > 1 ? Math.min(1, s.degree / (n - 1)) : 0;
+                addBlockChunks(tasks, s, json, 0, n, p, false);
+            }
+            case COMPONENTS -> {
+                int k = Math.max(1, Math.min(s.components, n));
+                for (int c = 0; c < k; c++) {
+                    int base = (int) ((long) n * c / k), size = (int) ((long) n * (c + 1) / k) - base;
+                    double p = size > 1 ? Math.min(1, Math.max(0, s.degree - 2) / (size - 1)) : 0;
+                    addBlockChunks(tasks, s, json, base, size, p, true);
+                }
+            }
+            case GRID -> {
+                int rows = Math.max(1, (int) Math.sqrt(n)), cols = (n + rows - 1) / rows;
+                int per = Math.max(1, CHUNK_EDGES / Math.max(1, 2 * cols));
+                for (int r0 = 0; r0 < rows; r0 += per) {
+                    int from = r0, to = Math.min(rows, r0 + per), id = tasks.size();
+                    tasks.add(() -> grid(s, json, id, rows, cols, from, to));
+                }
+            }
+            case POWERLAW -> {
+                double[] wt = chungLuWeights(s);
+                double total = 0;
+                for (double x : wt) total += x;
+                // cut the u range where the expected number of edges towards later vertices adds up to a chunk
+                double S = total, expected = 0, suffix = total;
+                int from = 0;
+                for (int u = 0; u < n; u++) {
+                    suffix -= wt[u];
+                    expected += Math.min(n - 1 - u, wt[u] * suffix / S);
+                    if (expected >= CHUNK_EDGES || u == n - 1) {
+                        int a = from, b = u + 1, id = tasks.size();
+                        tasks.add(() -> powerLaw(s, json, id, wt, S, a, b));
+                        from = u + 1;
+                        expected = 0;
+                    }
+                }
+            }
+        }
+        return tasks;
+    }
+
+    // rows [v0, v1) of a block hold pairs (w, v) with w < v; rows are cut so each chunk has about CHUNK_EDGES
+    private static void addBlockChunks(List<Callable<Chunk>> tasks, Spec s, boolean json, int base, int size,
+                                       double p, boolean tree) {
+        double pairs = (double) size * (size - 1) / 2, expected = pairs * p + (tree ? size - 1 : 0);
+        int k = (int) Math.max(1, Math.min(size, Math.ceil(expected / CHUNK_EDGES)));
+        int prev = 0;
+        for (int c = 1; c <= k; c++) {
+            // row v holds v pairs, so equal pair counts put the cuts at size * sqrt(c / k)
+            int cut = c == k ? size : (int) (size * Math.sqrt((double) c / k));
+            if (cut <= prev) continue;
+            int from = prev, to = cut, id = tasks.size();
+            tasks.add(() -> block(s, json, id, base, from, to, p, tree));
+            prev = cut;
+        }
+    }
+
+    private static Chunk block(Spec s, boolean json, int id, int base, int v0, int v1, double p, boolean tree) {
+        SplittableRandom rnd = random(s, id);
+        Chunk c = new Chunk();
+        double logq = p > 0 && p < 1 ? Math.log1p(-p) : 0;
+        int v = Math.max(v0, 1), parent = -1;
+        if (tree && v < v1) parent = treeEdge(s, c, rnd, base, v);
+        long w = -1;
+        while (v < v1 && p > 0) {
+            w += 1 + (p >= 1 ? 0 : (long) Math.floor(Math.log(1 - rnd.nextDouble()) / logq));
+            while (w >= v && v < v1) {
+                w -= v;
+                v++;
+                if (tree && v < v1) parent = treeEdge(s, c, rnd, base, v);
+            }
+            if (v >= v1) break;
+            if (tree && w == parent) continue;
+            c.add(base + (int) w, base + v, weight(s, rnd));
+        }
+        // without extra pairs the loop never walks the rows, so the tree edges are added here
+        if (p <= 0 && tree) for (v = v + 1; v < v1; v++) treeEdge(s, c, rnd, base, v);
+        return finish(c, json);
+    }
+
+    private static int treeEdge(Spec s, Chunk c, SplittableRandom rnd, int base, int v) {
+        int parent = rnd.nextInt(v);
+        c.add(base + parent, base + v, weight(s, rnd));
+        return parent;
+    }
+
+    private static Chunk grid(Spec s, boolean json, int id, int rows, int cols, int r0, int r1) {
+        SplittableRandom rnd = random(s, id);
+        Chunk c = new Chunk();
+        for (int r = r0; r < r1; r++) {
+            for (int col = 0, n = s.n; col < cols && r * cols + col < n; col++) {
+                int v = r * cols + col;
+                // the last row may be short, so lattice neighbours are checked against n as well
+                if (col + 1 < cols && v + 1 < n && rnd.nextDouble() < s.keep) c.add(v, v + 1, weight(s, rnd));
+                if (v + cols < n && rnd.nextDouble() < s.keep) c.add(v, v + cols, weight(s, rnd));
+                // a rare diagonal shortcut, longer than either street it skips
+                if (col + 1 < cols && v + cols + 1 < n && rnd.nextDouble() < 0.02) {
+                    c.add(v, v + cols + 1, (int) Math.min(s.maxWeight, (long) weight(s, rnd) * 3 / 2));
+                }
+            }
+        }
+        return finish(c, json);
+    }
+
+    // expected degrees ~ (i + 1)^(-1 / (gamma - 1)), highest first, scaled to average degree
+    private static double[] chungLuWeights(Spec s) {
+        double[] wt = new double[s.n];
+        double sum = 0, e = 1 / (s.gamma - 1);
+        for (int i = 0; i < s.n; i++) sum += wt[i] = Math.pow(i + 1, -e);
+        double scale = s.degree * s.n / sum;
+        for (int i = 0; i < s.n; i++) wt[i] *= scale;
+        return wt;
+    }
+
+    // Miller-Hagberg: pair (u, v) with probability min(1, wt[u] wt[v] / S); as wt is decreasing, candidates are
+    // skipped geometrically at the current probability and accepted with the ratio of the true one
+    private static Chunk powerLaw(Spec s, boolean json, int id, double[] wt, double S, int u0, int u1) {
+        SplittableRandom rnd = random(s, id);
+        Chunk c = new Chunk();
+        int n = wt.length;
+        for (int u = u0; u < u1; u++) {
+            int v = u + 1;
+            double p = v < n ? Math.min(1, wt[u] * wt[v] / S) : 0;
+            while (v < n && p > 0) {
+                if (p < 1) {
+                    double skip = Math.floor(Math.log(1 - rnd.nextDouble()) / Math.log1p(-p));
+                    if (v + skip >= n) break;
+                    v += (int) skip;
+                }
+                double q = Math.min(1, wt[u] * wt[v] / S);
+                if (rnd.nextDouble() < q / p) c.add(u, v, weight(s, rnd));
+                p = q;
+                v++;
+            }
+        }
+        return finish(c, json);
+    }
+
+    private static int weight(Spec s, SplittableRandom rnd) {
+        int lo = s.minWeight, hi = s.maxWeight;
+        double x = switch (s.weights) {
+            case UNIFORM -> lo + rnd.nextDouble() * ((double) hi - lo + 1);
+            case NORMAL -> {
+                // Box-Muller, mean mid-range, three sigmas to either bound
+                double g = Math.sqrt(-2 * Math.log(1 - rnd.nextDouble())) * Math.cos(2 * Math.PI * rnd.nextDouble());
+                yield (lo + (double) hi) / 2 + g * ((double) hi - lo) / 6 + 0.5;
+            }
+            case EXPONENTIAL -> lo - Math.log(1 - rnd.nextDouble()) * (((double) hi - lo) / 5);
+        };
+        return (int) Math.max(lo, Math.min(hi, Math.floor(x)));
+    }
+
+    private static SplittableRandom random(Spec s, int chunk) {
+        return new SplittableRandom(MSTCache.mix(s.seed * 0x9e3779b97f4a7c15L + chunk));
+    }
+
+    // formats the chunk's edges in the input layout, one object per line
+    private static Chunk finish(Chunk c, boolean json) {
+        if (!json) return c;
+        StringBuilder sb = new StringBuilder(c.count * 40);
+        for (int i = 0; i < c.count; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("\n        {\"from\":\"v").append(c.u[i]).append("\",\"to\":\"v").append(c.v[i])
+              .append("\",\"weight\":").append(c.w[i]).append('}');
+        }
+        c.json = sb.toString().getBytes(StandardCharsets.US_ASCII);
+        return c;
+    }
+}
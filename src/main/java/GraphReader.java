@@ -0,0 +1,120 @@
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+// Streams the "graphs" array of an ass_3_input_*.json file one graph at a time, interning vertex names
+// into one dictionary shared by all graphs of the file.
+public class GraphReader implements Closeable, Iterator<GraphReader.Item> {
+
+    public static final class Item {
+        public final int id;
+        public final String label;
+        public final List<String> nodes;
+        public final int edgeCount;
+        public final Graph graph;
+        Item(int id, String label, List<String> nodes, int edgeCount, Graph graph) {
+            this.id = id; this.label = label; this.nodes = nodes; this.edgeCount = edgeCount; this.graph = graph;
+        }
+    }
+
+    private final JsonReader in;
+    private final VertexDictionary dict = new VertexDictionary();
+    private boolean inGraphs = false;
+    private boolean done = false;
+
+    public GraphReader(Reader r) throws IOException {
+        this.in = new JsonReader(r);
+        in.beginObject();
+        while (in.hasNext()) {
+            if (in.nextName().equals("graphs") && in.peek() == JsonToken.BEGIN_ARRAY) {
+                in.beginArray();
+                inGraphs = true;
+                return;
+            }
+            in.skipValue();
+        }
+        done = true;
+    }
+
+    public static GraphReader open(Path p) throws IOException {
+        return new GraphReader(Files.newBufferedReader(p, StandardCharsets.UTF_8));
+    }
+
+    public static void forEach(Path p, Consumer<Item> action) throws IOException {
+        try (GraphReader r = open(p)) {
+            while (r.hasNext()) action.accept(r.next());
+        }
+    }
+
+    @Override public boolean hasNext() {
+        if (done) return false;
+        try {
+            if (inGraphs && in.hasNext()) return true;
+            done = true;
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override public Item next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        try {
+            return readGraph();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Item readGraph() throws IOException {
+        int id = 0;
+        String label = "";
+        List<String> nodes = new ArrayList<>();
+        int edgeCount = 0;
+        GraphBuilder b = new GraphBuilder(dict);
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id" -> id = in.nextInt();
+                case "label" -> label = in.nextString();
+                case "nodes" -> {
+                    in.beginArray();
+                    while (in.hasNext()) nodes.add(in.nextString());
+                    in.endArray();
+                }
+                case "edges" -> {
+                    in.beginArray();
+                    while (in.hasNext()) { readEdge(b); edgeCount++; }
+                    in.endArray();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Item(id, label, nodes, edgeCount, b.build());
+    }
+
+    private void readEdge(GraphBuilder b) throws IOException {
+        String from = null, to = null;
+        int weight = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "from" -> from = in.nextString();
+                case "to" -> to = in.nextString();
+                case "weight" -> weight = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (from == null || to == null) throw new IOException("edge without from/to at " + in.getPath());
+        b.addEdge(from, to, weight);
+    }
+
+    @Override public void close() throws IOException { in.close(); }
+}
@@ -2,46 +2,84 @@
 import java.util.*;
 
 public class Kruskal {
+    static final int RADIX_BITS = 8;
+    private static final int MAX_RADIX_PASSES = 3;
+
     public static AlgoResult findMST(Graph g) {
-        List<String> vlist = g.getVertexList();
-        int n = vlist.size();
-
-        List<int[]> edgesInt = g.getEdgesUniqueInt();
-        int m = edgesInt.size();
-        int[][] edges = new int[m][3];
-        for (int i = 0; i < m; i++) {
-            int[] e = edgesInt.get(i);
-            edges[i][0] = e[0];
-            edges[i][1] = e[1];
-            edges[i][2] = e[2];
-        }
+        int n = g.getVertexList().size();
+
+        int[] eu = g.getEdgeU(), ev = g.getEdgeV(), ew = g.getEdgeW();
+        int m = g.edgeCount();
+        int minW = Integer.MAX_VALUE, maxW = Integer.MIN_VALUE;
+        for (int i = 0; i < m; i++) { int w = ew[i]; if (w < minW) minW = w; if (w > maxW) maxW = w; }
 
-        final long[] sortOps = {0};
-        Arrays.sort(edges, (a,b)->{ sortOps[0]++; return Integer.compare(a[2], b[2]); });
+        // (w - minW) in the high 32 bits, edge index in the low 32: ties stay in input order
+        long[] keys = new long[m];
+        for (int i = 0; i < m; i++) keys[i] = ((long) ew[i] - minW) << 32 | i;
+        long ops = m == 0 ? 0 : sortKeys(keys, (long) maxW - minW);
+        MSTMetrics mt = MSTMetrics.start();
+        if (MSTMetrics.ENABLED) mt.sortWork = ops;
 
         int[] parent = new int[n];
         int[] rank = new int[n];
         for (int i = 0; i < n; i++) parent[i] = i;
 
-        List<Edge> mst = new ArrayList<>(n - 1);
-        long ops = sortOps[0];
+        int[] picked = new int[Math.max(0, n - 1)];
+        int k = 0;
 
-        for (int i = 0; i < m && mst.size() < n - 1; i++) {
-            int u = edges[i][0], v = edges[i][1], w = edges[i][2];
-            int ru = find(parent, u), rv = find(parent, v); ops += 2;
+        for (int i = 0; i < m && k < n - 1; i++) {
+            int e = (int) keys[i];
+            int u = eu[e], v = ev[e];
+            int ru = find(parent, u, mt), rv = find(parent, v, mt); ops += 2;
+            if (MSTMetrics.ENABLED) { mt.edgesScanned++; mt.finds += 2; }
             if (ru != rv) {
                 if (rank[ru] < rank[rv]) parent[ru] = rv;
                 else if (rank[ru] > rank[rv]) parent[rv] = ru;
                 else { parent[rv] = ru; rank[ru]++; }
-                mst.add(new Edge(vlist.get(u), vlist.get(v), w));
+                picked[k++] = e;
                 ops++;
-            }
+                if (MSTMetrics.ENABLED) mt.unions++;
+            } else if (MSTMetrics.ENABLED) mt.edgesSkipped++;
         }
-        return new AlgoResult(mst, ops);
+        return new AlgoResult(new MSTTree(g, picked, k), ops, mt);
     }
 
-    private static int find(int[] p, int x) {
-        while (p[x] != x) { p[x] = p[p[x]]; x = p[x]; }
+    // Sorts packed keys by their high 32 bits, stable in the low 32. Returns the sort work:
+    // key reads + writes per radix pass, or an n*log2(n) comparison estimate for the fallback.
+    static long sortKeys(long[] keys, long range) { return sortKeys(keys, range, null, null); }
+
+    // scratch (at least keys.length) and count (1 << RADIX_BITS) may be null to allocate them here
+    static long sortKeys(long[] keys, long range, long[] scratch, int[] count) {
+        int m = keys.length;
+        int bits = 64 - Long.numberOfLeadingZeros(range);
+        if (m < 2 || bits == 0) return m;
+        int passes = (bits + RADIX_BITS - 1) / RADIX_BITS;
+        if (passes > MAX_RADIX_PASSES) {
+            for (int i = 0; i < m; i++) keys[i] ^= Long.MIN_VALUE;
+            Arrays.sort(keys);
+            for (int i = 0; i < m; i++) keys[i] ^= Long.MIN_VALUE;
+            return (long) m * (64 - Long.numberOfLeadingZeros(m - 1));
+        }
+        long[] src = keys, dst = scratch != null ? scratch : new long[m];
+        if (count == null) count = new int[1 << RADIX_BITS];
+        int mask = (1 << RADIX_BITS) - 1;
+        for (int p = 0; p < passes; p++) {
+            int shift = 32 + p * RADIX_BITS;
+            Arrays.fill(count, 0);
+            for (int i = 0; i < m; i++) count[(int) (src[i] >>> shift) & mask]++;
+            for (int b = 0, sum = 0; b <= mask; b++) { int c = count[b]; count[b] = sum; sum += c; }
+            for (int i = 0; i < m; i++) { long k = src[i]; dst[count[(int) (k >>> shift) & mask]++] = k; }
+            long[] t = src; src = dst; dst = t;
+        }
+        if (src != keys) System.arraycopy(src, 0, keys, 0, m);
+        return 2L * m * passes;
+    }
+
+    private static int find(int[] p, int x, MSTMetrics mt) {
+        while (p[x] != x) {
+            p[x] = p[p[x]]; x = p[x];
+            if (MSTMetrics.ENABLED) mt.findSteps++;
+        }
         return x;
     }
 }
@@ -0,0 +1,89 @@
+
+import java.util.Arrays;
+
+// Open-addressing long -> non-negative int map with linear probing and backward-shift deletion.
+final class LongIntMap {
+    static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] vals;
+    private int size, mask;
+
+    LongIntMap(int expected) {
+        int cap = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new long[cap];
+        vals = new int[cap];
+        Arrays.fill(vals, MISSING);
+        mask = cap - 1;
+    }
+
+    static long pair(int a, int b) { return a < b ? ((long) a << 32) | b : ((long) b << 32) | a; }
+
+    int size() { return size; }
+
+    int get(long key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (vals[i] == MISSING) return MISSING;
+            if (keys[i] == key) return vals[i];
+        }
+    }
+
+    // returns the existing value, or MISSING after inserting value
+    int putIfAbsent(long key, int value) {
+        int i = slot(key);
+        for (; vals[i] != MISSING; i = (i + 1) & mask) {
+            if (keys[i] == key) return vals[i];
+        }
+        keys[i] = key;
+        vals[i] = value;
+        if (++size * 2 > keys.length) grow();
+        return MISSING;
+    }
+
+    void put(long key, int value) {
+        int i = slot(key);
+        for (; vals[i] != MISSING; i = (i + 1) & mask) {
+            if (keys[i] == key) { vals[i] = value; return; }
+        }
+        keys[i] = key;
+        vals[i] = value;
+        if (++size * 2 > keys.length) grow();
+    }
+
+    int remove(long key) {
+        int i = slot(key);
+        for (; vals[i] != MISSING; i = (i + 1) & mask) {
+            if (keys[i] != key) continue;
+            int old = vals[i];
+            size--;
+            // shift back followers whose probe chain passes through the hole
+            for (int j = (i + 1) & mask; vals[j] != MISSING; j = (j + 1) & mask) {
+                int home = slot(keys[j]);
+                if (((j - home) & mask) >= ((j - i) & mask)) {
+                    keys[i] = keys[j];
+                    vals[i] = vals[j];
+                    i = j;
+                }
+            }
+            vals[i] = MISSING;
+            return old;
+        }
+        return MISSING;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] ok = keys;
+        int[] ov = vals;
+        keys = new long[ok.length << 1];
+        vals = new int[ok.length << 1];
+        Arrays.fill(vals, MISSING);
+        mask = keys.length - 1;
+        size = 0;
+        for (int i = 0; i < ok.length; i++) if (ov[i] != MISSING) put(ok[i], ov[i]);
+    }
+}
@@ -0,0 +1,230 @@
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+
+// Content-addressed store of engine results keyed by an order-independent graph fingerprint and engine tag,
+// held in a byte-bounded LRU and optionally in a directory of <key>.mst files.
+public final class MSTCache {
+    static final int MAGIC = 0x4D535443; // "MSTC"
+    static final int VERSION = 1;
+
+    public static final class Fingerprint {
+        public final long hi, lo, check;
+        public final int n, m;
+        public final long weight;
+        Fingerprint(long hi, long lo, long check, int n, int m, long weight) {
+            this.hi = hi; this.lo = lo; this.check = check; this.n = n; this.m = m; this.weight = weight;
+        }
+        String key(String tag) {
+            long t = hash(tag, 0x5bd1e995L);
+            return String.format("%016x%016x", mix(hi ^ t), mix(lo + t));
+        }
+    }
+
+    public static final class Entry {
+        public final AlgoResult result;
+        public final double ms;
+        final Fingerprint fp;
+        final long bytes;
+        Entry(Fingerprint fp, AlgoResult result, double ms) {
+            this.fp = fp; this.result = result; this.ms = ms;
+            // only entries the cache keeps are sized, and those are detached; sizing a tree would name its edges
+            long b = 96;
+            if (result.tree == null) for (Edge e : result.edges) b += 32 + 2L * (e.from.length() + e.to.length());
+            this.bytes = b;
+        }
+    }
+
+    public interface StatsMXBean {
+        long getMemoryHits();
+        long getDiskHits();
+        long getMisses();
+        long getInvalidations();
+        long getEvictions();
+        long getEntries();
+        long getBytes();
+    }
+
+    private final long maxBytes;
+    private final Path dir;
+    private final LinkedHashMap<String,Entry> lru = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+    private final LongAdder memoryHits = new LongAdder(), diskHits = new LongAdder(), misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder(), evictions = new LongAdder();
+    public final Stats stats = new Stats();
+
+    // dir may be null for a memory-only cache
+    public MSTCache(long maxBytes, Path dir) throws IOException {
+        this.maxBytes = maxBytes;
+        this.dir = dir;
+        if (dir != null) Files.createDirectories(dir);
+    }
+
+    public static Fingerprint fingerprint(Graph g) {
+        List<String> names = g.getVertexList();
+        int n = names.size();
+        int[] u = g.getEdgeU(), v = g.getEdgeV(), w = g.getEdgeW();
+        int m = g.edgeCount();
+        long[] h = new long[n];
+        long hi = 0, lo = 0, check = 0, weight = 0;
+        for (int i = 0; i < n; i++) {
+            h[i] = hash(names.get(i), 0xcbf29ce484222325L);
+            hi += mix(h[i] + 0x9e3779b97f4a7c15L);
+            lo += mix(h[i] ^ 0xc2b2ae3d27d4eb4fL);
+            check += mix(h[i] * 0x165667b19e3779f9L + 1);
+        }
+        // ids follow first appearance, so the endpoints are put in hash order to make the undirected edge canonical
+        for (int i = 0; i < m; i++) {
+            long x = Math.min(h[u[i]], h[v[i]]), y = Math.max(h[u[i]], h[v[i]]);
+            long e = x * 0xff51afd7ed558ccdL + y * 0xc4ceb9fe1a85ec53L + w[i];
+            hi += mix(e + 0x632be59bd9b4e019L);
+            lo += mix(e ^ 0x85ebca77c2b2ae63L);
+            check += mix(Long.rotateLeft(e, 29) + 0x27d4eb2f165667c5L);
+            weight += w[i];
+        }
+        return new Fingerprint(mix(hi + n), mix(lo + m), check, n, m, weight);
+    }
+
+    public Entry get(Graph g, Fingerprint fp, String tag) {
+        String key = fp.key(tag);
+        Entry e;
+        synchronized (this) { e = lru.get(key); }
+        if (e != null) {
+            if (verify(g, fp, e)) { memoryHits.increment(); return e; }
+            synchronized (this) { if (lru.remove(key, e)) bytes -= e.bytes; }
+            invalidations.increment();
+        }
+        if (dir != null) {
+            Path p = file(key);
+            e = read(p);
+            if (e != null) {
+                if (verify(g, fp, e)) {
+                    diskHits.increment();
+                    remember(key, e);
+                    return e;
+                }
+                invalidations.increment();
+                try { Files.deleteIfExists(p); } catch (IOException ignored) {}
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public Entry put(Fingerprint fp, String tag, AlgoResult result, double ms) {
+        String key = fp.key(tag);
+        // the caller gets the result as solved; the cache keeps a named copy, as a tree pins its graph's arrays
+        Entry kept = new Entry(fp, result.detach(), ms);
+        remember(key, kept);
+        if (dir != null) {
+            try { write(file(key), kept); } catch (IOException ignored) {} // the cache never fails a solve
+        }
+        return kept.result == result ? kept : new Entry(fp, result, ms);
+    }
+
+    private synchronized void remember(String key, Entry e) {
+        if (e.bytes > maxBytes) return;
+        Entry old = lru.put(key, e);
+        if (old != null) bytes -= old.bytes;
+        bytes += e.bytes;
+        for (Iterator<Entry> it = lru.values().iterator(); bytes > maxBytes && it.hasNext(); ) {
+            bytes -= it.next().bytes;
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    // the fingerprint's check fields must agree and every cached edge must be an edge of g with the same weight
+    private static boolean verify(Graph g, Fingerprint fp, Entry e) {
+        Fingerprint c = e.fp;
+        if (c.check != fp.check || c.n != fp.n || c.m != fp.m || c.weight != fp.weight) return false;
+        if (e.result.edges.size() > Math.max(0, fp.n - 1)) return false;
+        int[] w = g.getEdgeW();
+        for (Edge x : e.result.edges) {
+            int i = g.edgeIndex(x.from, x.to);
+            if (i < 0 || w[i] != x.weight) return false;
+        }
+        return true;
+    }
+
+    private Path file(String key) { return dir.resolve(key.substring(0, 2)).resolve(key + ".mst"); }
+
+    private static void write(Path p, Entry e) throws IOException {
+        Files.createDirectories(p.getParent());
+        Path tmp = Files.createTempFile(p.getParent(), p.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            Fingerprint fp = e.fp;
+            out.writeInt(MAGIC); out.writeInt(VERSION);
+            out.writeLong(fp.hi); out.writeLong(fp.lo); out.writeLong(fp.check);
+            out.writeInt(fp.n); out.writeInt(fp.m); out.writeLong(fp.weight);
+            out.writeDouble(e.ms); out.writeLong(e.result.operations);
+            out.writeInt(e.result.edges.size());
+            for (Edge x : e.result.edges) { out.writeUTF(x.from); out.writeUTF(x.to); out.writeInt(x.weight); }
+        }
+        try {
+            Files.move(tmp, p, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, p, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // null when the file is missing or unreadable; a torn or foreign file is a miss, not an error
+    private static Entry read(Path p) {
+        if (!Files.isRegularFile(p)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(p)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            Fingerprint fp = new Fingerprint(in.readLong(), in.readLong(), in.readLong(),
+                    in.readInt(), in.readInt(), in.readLong());
+            double ms = in.readDouble();
+            long ops = in.readLong();
+            int k = in.readInt();
+            if (k < 0 || k > fp.n) return null;
+            List<Edge> edges = new ArrayList<>(k);
+            for (int i = 0; i < k; i++) edges.add(new Edge(in.readUTF(), in.readUTF(), in.readInt()));
+            return new Entry(fp, new AlgoResult(edges, ops), ms);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // FNV-1a over the UTF-16 units, finished with mix()
+    static long hash(String s, long seed) {
+        long h = seed;
+        for (int i = 0; i < s.length(); i++) { h ^= s.charAt(i); h *= 0x100000001b3L; }
+        return mix(h);
+    }
+
+    // splitmix64 finalizer
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    public final class Stats implements StatsMXBean {
+        @Override public long getMemoryHits() { return memoryHits.sum(); }
+        @Override public long getDiskHits() { return diskHits.sum(); }
+        @Override public long getMisses() { return misses.sum(); }
+        @Override public long getInvalidations() { return invalidations.sum(); }
+        @Override public long getEvictions() { return evictions.sum(); }
+        @Override public long getEntries() { synchronized (MSTCache.this) { return lru.size(); } }
+        @Override public long getBytes() { synchronized (MSTCache.this) { return bytes; } }
+
+        @Override public String toString() {
+            return String.format(Locale.US, "cache: %d memory hits, %d disk hits, %d misses, %d invalidated, %d evicted, %d entries (%d B)",
+                    getMemoryHits(), getDiskHits(), getMisses(), getInvalidations(), getEvictions(), getEntries(), getBytes());
+        }
+    }
+
+    // exposes this cache as mst:type=Cache, replacing an earlier registration
+    public synchronized void registerMBean() throws Exception {
+        ObjectName name = new ObjectName("mst:type=Cache");
+        var server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(name)) server.unregisterMBean(name);
+        server.registerMBean(stats, name);
+    }
+}
@@ -0,0 +1,99 @@
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+
+// Per-run engine counters, off unless the JVM starts with -Dmst.metrics=true; ENABLED is static final so the JIT
+// drops the disabled increments.
+public final class MSTMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("mst.metrics");
+
+    // running totals over every recorded run (BatchRunner records each engine of each graph)
+    public static final Aggregate TOTAL = new Aggregate();
+
+    public long heapInserts, decreaseKeys, heapPolls, siftSteps;
+    public long finds, findSteps, unions;
+    public long edgesScanned, edgesSkipped;
+    public long sortWork, rounds;
+
+    // null when disabled, so `if (MSTMetrics.ENABLED) m.x++` never dereferences it
+    static MSTMetrics start() { return ENABLED ? new MSTMetrics() : null; }
+
+    public Map<String,Long> toMap() {
+        Map<String,Long> m = new LinkedHashMap<>();
+        m.put("heap_inserts", heapInserts);
+        m.put("decrease_keys", decreaseKeys);
+        m.put("heap_polls", heapPolls);
+        m.put("sift_steps", siftSteps);
+        m.put("finds", finds);
+        m.put("find_steps", findSteps);
+        m.put("unions", unions);
+        m.put("edges_scanned", edgesScanned);
+        m.put("edges_skipped", edgesSkipped);
+        m.put("sort_work", sortWork);
+        m.put("rounds", rounds);
+        return m;
+    }
+
+    public interface AggregateMXBean {
+        long getRuns();
+        long getHeapInserts();
+        long getDecreaseKeys();
+        long getHeapPolls();
+        long getSiftSteps();
+        long getFinds();
+        long getFindSteps();
+        long getUnions();
+        long getEdgesScanned();
+        long getEdgesSkipped();
+        long getSortWork();
+        long getRounds();
+        void reset();
+    }
+
+    public static final class Aggregate implements AggregateMXBean {
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder heapInserts = new LongAdder(), decreaseKeys = new LongAdder();
+        private final LongAdder heapPolls = new LongAdder(), siftSteps = new LongAdder();
+        private final LongAdder finds = new LongAdder(), findSteps = new LongAdder(), unions = new LongAdder();
+        private final LongAdder edgesScanned = new LongAdder(), edgesSkipped = new LongAdder();
+        private final LongAdder sortWork = new LongAdder(), rounds = new LongAdder();
+
+        public void record(MSTMetrics m) {
+            if (m == null) return;
+            runs.increment();
+            heapInserts.add(m.heapInserts); decreaseKeys.add(m.decreaseKeys);
+            heapPolls.add(m.heapPolls); siftSteps.add(m.siftSteps);
+            finds.add(m.finds); findSteps.add(m.findSteps); unions.add(m.unions);
+            edgesScanned.add(m.edgesScanned); edgesSkipped.add(m.edgesSkipped);
+            sortWork.add(m.sortWork); rounds.add(m.rounds);
+        }
+
+        @Override public long getRuns() { return runs.sum(); }
+        @Override public long getHeapInserts() { return heapInserts.sum(); }
+        @Override public long getDecreaseKeys() { return decreaseKeys.sum(); }
+        @Override public long getHeapPolls() { return heapPolls.sum(); }
+        @Override public long getSiftSteps() { return siftSteps.sum(); }
+        @Override public long getFinds() { return finds.sum(); }
+        @Override public long getFindSteps() { return findSteps.sum(); }
+        @Override public long getUnions() { return unions.sum(); }
+        @Override public long getEdgesScanned() { return edgesScanned.sum(); }
+        @Override public long getEdgesSkipped() { return edgesSkipped.sum(); }
+        @Override public long getSortWork() { return sortWork.sum(); }
+        @Override public long getRounds() { return rounds.sum(); }
+
+        @Override public void reset() {
+            for (LongAdder a : new LongAdder[]{runs, heapInserts, decreaseKeys, heapPolls, siftSteps, finds,
+                    findSteps, unions, edgesScanned, edgesSkipped, sortWork, rounds}) a.reset();
+        }
+    }
+
+    // exposes TOTAL as mst:type=Metrics; idempotent
+    public static synchronized void registerMBean() throws Exception {
+        ObjectName name = new ObjectName("mst:type=Metrics");
+        var server = ManagementFactory.getPlatformMBeanServer();
+        if (!server.isRegistered(name)) server.registerMBean(TOTAL, name);
+    }
+}
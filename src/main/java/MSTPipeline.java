@@ -0,0 +1,87 @@
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.*;
+
+// Parses and solves every input graph once and fans each result out to the selected sinks (all three by default).
+//   java MSTPipeline [--json] [--csv] [--png] [--workers N] [--edges full|compact|none] [--cache DIR] [--verify] [dir]
+public class MSTPipeline {
+
+    public static void main(String[] args) throws Exception {
+        BatchRunner.Options opt = new BatchRunner.Options();
+        Set<String> selected = new LinkedHashSet<>();
+        Path root = Paths.get("");
+        GenerateOutputs.EdgeMode edges = GenerateOutputs.EdgeMode.FULL;
+        int edgesOver = 0;
+        boolean gzip = false;
+        Path cacheDir = null;
+        long cacheMb = 64;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--json", "--csv", "--png" -> selected.add(args[i].substring(2));
+                case "--workers" -> opt.workers = Integer.parseInt(args[++i]);
+                case "--edges" -> edges = GenerateOutputs.EdgeMode.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                case "--edges-over" -> edgesOver = Integer.parseInt(args[++i]);
+                case "--gzip" -> gzip = true;
+                case "--cache" -> cacheDir = Paths.get(args[++i]);
+                case "--cache-mb" -> cacheMb = Long.parseLong(args[++i]);
+                case "--verify" -> opt.verify = true;
+                default -> {
+                    if (args[i].startsWith("--")) throw new IllegalArgumentException("unknown option " + args[i]);
+                    root = Paths.get(args[i]);
+                }
+            }
+        }
+        if (selected.isEmpty()) selected.addAll(List.of("json", "csv", "png"));
+
+        List<ResultSink> sinks = new ArrayList<>();
+        for (String s : selected) {
+            sinks.add(switch (s) {
+                case "json" -> new GenerateOutputs.Sink(Paths.get(gzip ? "ass_3_output.json.gz" : "ass_3_output.json"),
+                        edges, edgesOver);
+                case "csv" -> new GenerateOutputsCsv.Sink(Paths.get("target", "ass_3_output_table.csv"));
+                default -> new RenderGraphs.Sink(Paths.get("target", "graphs"));
+            });
+        }
+        if (MSTMetrics.ENABLED) MSTMetrics.registerMBean();
+        if (cacheDir != null) {
+            opt.cache = new MSTCache(cacheMb << 20, cacheDir);
+            if (MSTMetrics.ENABLED) opt.cache.registerMBean();
+        }
+        long n = run(inputs(root), opt, sinks);
+        System.out.println(n + " graphs -> " + String.join(", ", selected));
+        if (opt.cache != null) System.out.println(opt.cache.stats);
+    }
+
+    static List<Path> inputs(Path root) throws IOException {
+        List<Path> inputs = BatchRunner.findInputs(root, 2);
+        if (inputs.isEmpty()) throw new IllegalStateException("No ass_3_input_*.json found");
+        return inputs;
+    }
+
+    // closes every sink, also when solving or another sink fails
+    public static long run(List<Path> inputs, BatchRunner.Options opt, List<ResultSink> sinks) throws Exception {
+        Exception failure = null;
+        long n = 0;
+        try {
+            n = BatchRunner.run(inputs, opt, r -> {
+                try {
+                    for (ResultSink s : sinks) s.accept(r);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            failure = e.getCause();
+        } catch (Exception e) {
+            failure = e;
+        }
+        for (ResultSink s : sinks) {
+            try { s.close(); }
+            catch (IOException e) { if (failure == null) failure = e; else failure.addSuppressed(e); }
+        }
+        if (failure != null) throw failure;
+        return n;
+    }
+}
@@ -0,0 +1,357 @@
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Resident MST service on loopback: POST /solve answers the GenerateOutputs bundle, GET /metrics reports latency.
+//   java MSTServer [--port N] [--workers N] [--verify] [--no-warmup]   (admission and batching flags in main)
+public class MSTServer implements AutoCloseable {
+
+    public static final class Options {
+        public int port = 8080;               // 0 picks a free port
+        public int workers = Runtime.getRuntime().availableProcessors();
+        public int maxInFlight = 256;
+        public long admitMillis = 30_000;
+        public int smallEdges = 4096;
+        public int batchMax = 64;
+        public int batchEdges = 1 << 16;
+        public long batchMicros = 200;
+        public boolean verify = false;
+        public boolean warmup = true;         // solve a generated graph a few times before binding
+    }
+
+    private final Options opt;
+    private final HttpServer http;
+    private final ExecutorService handlers = Executors.newVirtualThreadPerTaskExecutor();
+    private final BlockingQueue<Task> small = new LinkedBlockingQueue<>();
+    private final BlockingQueue<List<Task>> work;
+    private final Semaphore inFlight;
+    private final List<Thread> threads = new ArrayList<>();
+    private final AtomicLong seq = new AtomicLong();
+    public final Stats stats = new Stats();
+
+    private static final class Task {
+        final BatchRunner.Job job;
+        final long submitted = System.nanoTime();
+        final CompletableFuture<SolvedGraph> done = new CompletableFuture<>();
+        Task(BatchRunner.Job job) { this.job = job; }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options opt = new Options();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> opt.port = Integer.parseInt(args[++i]);
+                case "--workers" -> opt.workers = Integer.parseInt(args[++i]);
+                case "--max-in-flight" -> opt.maxInFlight = Integer.parseInt(args[++i]);
+                case "--small-edges" -> opt.smallEdges = Integer.parseInt(args[++i]);
+                case "--batch-max" -> opt.batchMax = Integer.parseInt(args[++i]);
+                case "--batch-us" -> opt.batchMicros = Long.parseLong(args[++i]);
+                case "--verify" -> opt.verify = true;
+                case "--no-warmup" -> opt.warmup = false;
+                default -> throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        MSTServer s = start(opt);
+        Runtime.getRuntime().addShutdownHook(new Thread(s::close));
+        System.out.println("MST service on http://localhost:" + s.port() + "/solve, metrics on /metrics");
+    }
+
+    public static MSTServer start(Options opt) throws Exception {
+        if (opt.warmup) warmUp(opt);
+        return new MSTServer(opt);
+    }
+
+    private MSTServer(Options opt) throws IOException {
+        this.opt = opt;
+        work = new ArrayBlockingQueue<>(Math.max(1, opt.workers));
+        inFlight = new Semaphore(opt.maxInFlight);
+        for (int i = 0; i < opt.workers; i++) threads.add(Thread.ofPlatform().name("mst-solver-" + i).start(this::solveLoop));
+        threads.add(Thread.ofVirtual().name("mst-batcher").start(this::batchLoop));
+        http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), opt.port), 0);
+        http.setExecutor(handlers);
+        http.createContext("/solve", x -> handle(x, this::solve));
+        http.createContext("/metrics", x -> { try (x) { metrics(x); } }); // not timed as a request
+        http.start();
+    }
+
+    public int port() { return http.getAddress().getPort(); }
+
+    // stops accepting, then abandons queued graphs; their requests fail
+    @Override public void close() {
+        http.stop(0);
+        for (Thread t : threads) t.interrupt();
+        handlers.shutdownNow();
+        for (Task t; (t = small.poll()) != null; ) t.done.completeExceptionally(new CancellationException("server closed"));
+    }
+
+    // JIT-compiles the engines on a generated graph; the CSR is built once, so repeated solves are read-only
+    private static void warmUp(Options opt) throws Exception {
+        GraphGenerator.Spec s = new GraphGenerator.Spec();
+        s.family = GraphGenerator.Family.ER; s.n = 20_000; s.degree = 8; s.seed = 1;
+        Graph g = GraphGenerator.generate(s);
+        g.getOffsets();
+        GraphReader.Item item = new GraphReader.Item(0, "warm-up", g.getVertexList(), g.edgeCount(), g);
+        try (BatchRunner.Solver solver = new BatchRunner.Solver(1, null, opt.verify)) {
+            for (int i = 0; i < 5; i++) solver.solve(new BatchRunner.Job(i, "warm-up", item));
+        }
+    }
+
+    private interface Handler { void handle(HttpExchange x) throws IOException; }
+
+    private void handle(HttpExchange x, Handler h) throws IOException {
+        long t0 = System.nanoTime();
+        try {
+            h.handle(x);
+        } catch (Rejected e) {
+            stats.rejected.increment();
+            error(x, 503, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            if (x.getResponseCode() == -1) error(x, 500, String.valueOf(e));
+            else stats.errors.increment(); // the client went away mid-body
+        } finally {
+            x.close();
+            stats.request.record(System.nanoTime() - t0);
+        }
+    }
+
+    private void solve(HttpExchange x) throws IOException {
+        if (!x.getRequestMethod().equals("POST")) { error(x, 405, "POST a {\"graphs\": [...]} document"); return; }
+        Map<String,String> q = query(x.getRequestURI().getRawQuery());
+        String file = q.getOrDefault("file", "request");
+        GenerateOutputs.EdgeMode mode;
+        try {
+            mode = GenerateOutputs.EdgeMode.valueOf(q.getOrDefault("edges", "full").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            error(x, 400, "edges must be full, compact or none");
+            return;
+        }
+
+        List<Task> tasks = new ArrayList<>();
+        try (GraphReader r = new GraphReader(new InputStreamReader(x.getRequestBody(), StandardCharsets.UTF_8))) {
+            while (r.hasNext()) {
+                GraphReader.Item item = r.next();
+                if (item.nodes.isEmpty()) throw new IOException("graph " + item.id + " has no nodes");
+                tasks.add(submit(new BatchRunner.Job(seq.getAndIncrement(), file, item)));
+            }
+        } catch (Rejected e) {
+            throw e;
+        } catch (IOException | UncheckedIOException | IllegalStateException | NumberFormatException e) {
+            // malformed JSON; graphs already admitted still finish and release their slots
+            error(x, 400, e instanceof UncheckedIOException u ? String.valueOf(u.getCause()) : String.valueOf(e));
+            return;
+        }
+
+        List<SolvedGraph> solved = new ArrayList<>(tasks.size());
+        try {
+            for (Task t : tasks) solved.add(t.done.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            throw new IOException("solve failed", e.getCause());
+        }
+        x.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        x.sendResponseHeaders(200, 0);
+        Writer out = new BufferedWriter(new OutputStreamWriter(x.getResponseBody(), StandardCharsets.UTF_8), 1 << 16);
+        try (GenerateOutputs.Sink sink = new GenerateOutputs.Sink(out, mode, 0)) {
+            for (SolvedGraph s : solved) sink.accept(s);
+        }
+        stats.requests.increment();
+    }
+
+    private Task submit(BatchRunner.Job job) throws IOException {
+        try {
+            if (!inFlight.tryAcquire(opt.admitMillis, TimeUnit.MILLISECONDS)) throw new Rejected(opt.maxInFlight);
+            Task t = new Task(job);
+            if (job.item.edgeCount <= opt.smallEdges) small.put(t);
+            else work.put(List.of(t));
+            return t;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    // groups small graphs: the first one opens a batch, which closes after batchMicros or when it is full
+    private void batchLoop() {
+        try {
+            while (true) {
+                Task first = small.take();
+                List<Task> batch = new ArrayList<>();
+                batch.add(first);
+                long edges = first.job.item.edgeCount, deadline = System.nanoTime() + opt.batchMicros * 1000;
+                while (batch.size() < opt.batchMax && edges < opt.batchEdges) {
+                    Task t = small.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (t == null) break;
+                    batch.add(t);
+                    edges += t.job.item.edgeCount;
+                }
+                work.put(batch);
+            }
+        } catch (InterruptedException e) {
+            // closing
+        }
+    }
+
+    private void solveLoop() {
+        try (BatchRunner.Solver solver = new BatchRunner.Solver(1, null, opt.verify)) {
+            while (true) {
+                List<Task> batch = work.take();
+                stats.batches.increment();
+                for (Task t : batch) {
+                    try {
+                        t.done.complete(solver.solve(t.job));
+                        stats.graphs.increment();
+                        stats.edges.add(t.job.item.edgeCount);
+                    } catch (Throwable e) {
+                        t.done.completeExceptionally(e);
+                    } finally {
+                        inFlight.release();
+                        stats.graph.record(System.nanoTime() - t.submitted);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // closing
+        } finally {
+            for (List<Task> b; (b = work.poll()) != null; ) for (Task t : b) t.done.completeExceptionally(new CancellationException("server closed"));
+        }
+    }
+
+    private void metrics(HttpExchange x) throws IOException {
+        x.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        x.sendResponseHeaders(200, 0);
+        try (JsonWriter json = new JsonWriter(new OutputStreamWriter(x.getResponseBody(), StandardCharsets.UTF_8))) {
+            json.setIndent("  ");
+            stats.write(json, opt.maxInFlight - inFlight.availablePermits());
+        }
+    }
+
+    // every failed exchange counts as an error, except a rejection, which has its own counter
+    private void error(HttpExchange x, int status, String message) throws IOException {
+        if (status != 503) stats.errors.increment();
+        StringWriter s = new StringWriter();
+        try (JsonWriter json = new JsonWriter(s)) { json.beginObject().name("error").value(message).endObject(); }
+        byte[] body = s.toString().getBytes(StandardCharsets.UTF_8);
+        x.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        x.sendResponseHeaders(status, body.length);
+        x.getResponseBody().write(body);
+    }
+
+    private static Map<String,String> query(String raw) {
+        Map<String,String> q = new HashMap<>();
+        if (raw == null) return q;
+        for (String kv : raw.split("&")) {
+            int eq = kv.indexOf('=');
+            if (eq > 0) q.put(URLDecoder.decode(kv.substring(0, eq), StandardCharsets.UTF_8), URLDecoder.decode(kv.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return q;
+    }
+
+    private static final class Rejected extends IOException {
+        Rejected(int limit) { super("more than " + limit + " graphs in flight"); }
+    }
+
+    public static final class Stats {
+        final long started = System.nanoTime();
+        final LongAdder requests = new LongAdder(), graphs = new LongAdder(), edges = new LongAdder();
+        final LongAdder errors = new LongAdder(), rejected = new LongAdder(), batches = new LongAdder();
+        public final Latency request = new Latency(), graph = new Latency();
+
+        public long requests() { return requests.sum(); }
+        public long graphs() { return graphs.sum(); }
+        public long batches() { return batches.sum(); }
+
+        void write(JsonWriter json, int inFlight) throws IOException {
+            double up = (System.nanoTime() - started) / 1e9;
+            long g = graphs.sum(), b = batches.sum();
+            json.beginObject()
+                .name("uptime_s").value(up)
+                .name("requests").value(requests.sum())
+                .name("graphs").value(g)
+                .name("edges").value(edges.sum())
+                .name("errors").value(errors.sum())
+                .name("rejected").value(rejected.sum())
+                .name("in_flight").value(inFlight)
+                .name("requests_per_s").value(requests.sum() / up)
+                .name("graphs_per_s").value(g / up)
+                .name("edges_per_s").value(edges.sum() / up)
+                .name("batches").value(b)
+                .name("graphs_per_batch").value(b == 0 ? 0 : (double) g / b);
+            json.name("request_ms");
+            request.write(json);
+            json.name("graph_ms"); // admission to solved: batching, queueing and the solve itself
+            graph.write(json);
+            json.endObject();
+        }
+    }
+
+    // Lock-free latency histogram over microseconds: exact below 8 µs, then 8 log-linear buckets per power of two,
+    // so a reported percentile is the upper edge of its bucket and at most 12.5% above the true value.
+    public static final class Latency {
+        private static final int SUB = 8;
+        private final AtomicLongArray counts = new AtomicLongArray(62 * SUB);
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            long us = Math.max(0, nanos / 1000);
+            counts.incrementAndGet(bucket(us));
+            max.accumulate(us);
+        }
+
+        static int bucket(long us) {
+            if (us < SUB) return (int) us;
+            int e = 63 - Long.numberOfLeadingZeros(us);
+            return (e - 2) * SUB + (int) ((us >>> (e - 3)) & (SUB - 1));
+        }
+
+        // exclusive upper bound of a bucket, in µs
+        static long upper(int b) {
+            if (b < SUB) return b + 1;
+            int e = b / SUB + 2;
+            return (long) (SUB + b % SUB + 1) << (e - 3);
+        }
+
+        public long count() {
+            long n = 0;
+            for (int i = 0; i < counts.length(); i++) n += counts.get(i);
+            return n;
+        }
+
+        // in ms; 0 when nothing was recorded
+        public double percentile(double p) {
+            long[] c = new long[counts.length()];
+            long n = 0;
+            for (int i = 0; i < c.length; i++) n += c[i] = counts.get(i);
+            if (n == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(p * n)), seen = 0;
+            for (int i = 0; i < c.length; i++) {
+                seen += c[i];
+                if (seen >= rank) return Math.min(upper(i), max.get()) / 1000.0;
+            }
+            return max.get() / 1000.0;
+        }
+
+        void write(JsonWriter json) throws IOException {
+            json.beginObject()
+                .name("count").value(count())
+                .name("p50").value(percentile(0.50))
+                .name("p90").value(percentile(0.90))
+                .name("p99").value(percentile(0.99))
+                .name("p999").value(percentile(0.999))
+                .name("max").value(max.get() / 1000.0)
+                .endObject();
+        }
+    }
+}
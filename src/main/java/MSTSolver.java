@@ -0,0 +1,28 @@
+
+// Picks an engine from n and the density m / n^2: Kruskal for large or sparse graphs, DensePrim for dense ones,
+// heap Prim in between. Thresholds calibrated in REPORT.md.
+public class MSTSolver {
+    public enum Engine { DENSE_PRIM, HEAP_PRIM, KRUSKAL }
+
+    static final int KRUSKAL_MIN_N = 300;
+    static final double KRUSKAL_MAX_DENSITY = 0.02;
+    static final double DENSE_MIN_DENSITY = 0.1;
+
+    public static Engine choose(int n, int m) {
+        if (n >= KRUSKAL_MIN_N || n <= 1) return Engine.KRUSKAL;
+        double density = (double) m / ((double) n * n);
+        if (density <= KRUSKAL_MAX_DENSITY) return Engine.KRUSKAL;
+        if (density >= DENSE_MIN_DENSITY) return Engine.DENSE_PRIM;
+        return Engine.HEAP_PRIM;
+    }
+
+    public static AlgoResult auto(Graph g) { return auto(g, null); }
+
+    public static AlgoResult auto(Graph g, String startName) {
+        return switch (choose(g.vertexCount(), g.edgeCount())) {
+            case DENSE_PRIM -> DensePrim.findMST(g, startName);
+            case HEAP_PRIM -> Prim.findMST(g, startName);
+            case KRUSKAL -> Kruskal.findMST(g);
+        };
+    }
+}
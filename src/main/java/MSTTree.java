@@ -0,0 +1,59 @@
+import java.util.*;
+
+// Primitive form of an engine's spanning forest: edge indices into the graph's unique-edge arrays in the order
+// taken, the cost as a long and a BitSet of taken indices. Vertex names are resolved only when edges() is read.
+public final class MSTTree {
+    private final List<String> vlist;
+    private final int[] eu, ev, ew;
+    private final int m;
+    private final int[] picked;
+    private final int size;
+    private final BitSet selected;
+    public final long cost;
+
+    // picked[0..size) are edge indices into g's unique-edge arrays
+    MSTTree(Graph g, int[] picked, int size) {
+        vlist = g.getVertexList();
+        eu = g.getEdgeU(); ev = g.getEdgeV(); ew = g.getEdgeW();
+        m = g.edgeCount();
+        this.picked = picked;
+        this.size = size;
+        selected = new BitSet(m);
+        long c = 0;
+        for (int i = 0; i < size; i++) { selected.set(picked[i]); c += ew[picked[i]]; }
+        cost = c;
+    }
+
+    public int size() { return size; }
+
+    // graph edge index of the i-th tree edge
+    public int edge(int i) { Objects.checkIndex(i, size); return picked[i]; }
+    public int u(int i) { return eu[edge(i)]; }
+    public int v(int i) { return ev[edge(i)]; }
+    public int weight(int i) { return ew[edge(i)]; }
+
+    public boolean contains(int edge) { return selected.get(edge); }
+
+    // the membership set itself, not a copy; callers only read it
+    BitSet selected() { return selected; }
+
+    public String name(int vertex) { return vlist.get(vertex); }
+
+    // true when g's vertex ids and edge indices are the ones this tree was built on
+    public boolean sameGraph(Graph g) {
+        return g.getEdgeU() == eu && g.getEdgeV() == ev && g.getEdgeW() == ew && g.edgeCount() == m && g.getVertexList() == vlist;
+    }
+
+    // the tree as Edges, named on access
+    public List<Edge> edges() {
+        return new Named();
+    }
+
+    private final class Named extends AbstractList<Edge> implements RandomAccess {
+        @Override public Edge get(int i) {
+            int e = edge(i);
+            return new Edge(vlist.get(eu[e]), vlist.get(ev[e]), ew[e]);
+        }
+        @Override public int size() { return size; }
+    }
+}
@@ -0,0 +1,237 @@
+
+import java.nio.file.*;
+import java.util.*;
+
+// Certifies a candidate spanning forest with the cycle property, using offline-LCA path maxima.
+//   java MSTVerifier [input.json]...  solves every graph with Kruskal, certifies it and prints both times
+public class MSTVerifier {
+    static final int MAX_REPORTED = 100;
+
+    // a graph edge lighter than the heaviest tree edge on its tree path; heaviest is null when the edge joins two
+    // trees, i.e. the candidate does not span its component
+    public static final class Violation {
+        public final Edge edge;
+        public final Edge heaviest;
+        Violation(Edge edge, Edge heaviest) { this.edge = edge; this.heaviest = heaviest; }
+        @Override public String toString() {
+            return heaviest == null ? edge + " joins two trees" : edge + " is lighter than tree edge " + heaviest;
+        }
+    }
+
+    public static final class Report {
+        public final List<String> problems;      // candidate edges that are not graph edges, or close a cycle
+        public final List<Violation> violations; // the first MAX_REPORTED
+        public final long violationCount;
+        public final int trees;
+
+        Report(List<String> problems, List<Violation> violations, long violationCount, int trees) {
+            this.problems = problems; this.violations = violations; this.violationCount = violationCount; this.trees = trees;
+        }
+
+        public boolean ok() { return problems.isEmpty() && violationCount == 0; }
+
+        @Override public String toString() {
+            if (ok()) return "verified: minimum spanning forest of " + trees + " tree(s)";
+            return "rejected: " + problems.size() + " structural problem(s), " + violationCount + " violation(s)"
+                    + (problems.isEmpty() ? "" : ", first: " + problems.get(0))
+                    + (violations.isEmpty() ? "" : ", first: " + violations.get(0));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Path> inputs = new ArrayList<>();
+        for (String a : args) inputs.add(Paths.get(a));
+        if (inputs.isEmpty()) inputs = MSTPipeline.inputs(Paths.get(""));
+        for (Path p : inputs) {
+            GraphReader.forEach(p, item -> {
+                Graph g = item.graph;
+                g.getOffsets();
+                long t0 = System.nanoTime();
+                AlgoResult r = Kruskal.findMST(g);
+                long t1 = System.nanoTime();
+                Report rep = verify(g, r);
+                long t2 = System.nanoTime();
+                System.out.printf(Locale.US, "%s #%d %s: kruskal %.3f ms, verify %.3f ms, %s%n", p.getFileName(), item.id,
+                        item.label, (t1 - t0) / 1e6, (t2 - t1) / 1e6, rep);
+            });
+        }
+    }
+
+    public static Report verify(Graph g, AlgoResult r) {
+        MSTTree t = r.tree;
+        if (t == null || !t.sameGraph(g)) return verify(g, r.edges);
+        // edge indices of this graph: endpoints and weights are the graph's own, so only a cycle can be wrong
+        int k = t.size();
+        int[] ta = new int[k], tb = new int[k], tw = new int[k];
+        int[] dsu = new int[g.getVertexList().size()];
+        for (int i = 0; i < dsu.length; i++) dsu[i] = i;
+        List<String> problems = new ArrayList<>();
+        int c = 0;
+        for (int i = 0; i < k; i++) {
+            int a = t.u(i), b = t.v(i), ra = root(dsu, a), rb = root(dsu, b);
+            if (ra == rb) { problems.add(t.edges().get(i) + ": closes a cycle"); continue; }
+            dsu[ra] = rb;
+            ta[c] = a; tb[c] = b; tw[c] = t.weight(i); c++;
+        }
+        return certify(g, ta, tb, tw, c, problems);
+    }
+
+    public static Report verify(Graph g, List<Edge> candidate) {
+        Map<String,Integer> idx = g.getIndex();
+        int[] off = g.getOffsets(), ends = g.getEnds(), tgt = g.getTargets(), wts = g.getWeights();
+        int n = g.vertexCount();
+        List<String> problems = new ArrayList<>();
+
+        // accepted candidate edges: graph edges with their graph weight that close no cycle
+        int[] ta = new int[candidate.size()], tb = new int[candidate.size()], tw = new int[candidate.size()];
+        int t = 0;
+        int[] dsu = new int[n];
+        for (int i = 0; i < n; i++) dsu[i] = i;
+        for (Edge e : candidate) {
+            Integer a = idx.get(e.from), b = idx.get(e.to);
+            if (a == null || b == null) { problems.add(e + ": unknown vertex"); continue; }
+            int w = Integer.MIN_VALUE;
+            boolean found = false;
+            for (int i = off[a]; i < ends[a] && !found; i++) if (tgt[i] == b) { w = wts[i]; found = true; }
+            if (!found) { problems.add(e + ": not an edge of the graph"); continue; }
+            if (w != e.weight) { problems.add(e + ": graph weight is " + w); continue; }
+            int ra = root(dsu, a), rb = root(dsu, b);
+            if (ra == rb) { problems.add(e + ": closes a cycle"); continue; }
+            dsu[ra] = rb;
+            ta[t] = a; tb[t] = b; tw[t] = w; t++;
+        }
+        return certify(g, ta, tb, tw, t, problems);
+    }
+
+    // the cycle-property check proper, for a forest of t edges given by vertex ids
+    static Report certify(Graph g, int[] ta, int[] tb, int[] tw, int t, List<String> problems) {
+        List<String> vlist = g.getVertexList();
+        int[] eu = g.getEdgeU(), ev = g.getEdgeV(), ew = g.getEdgeW();
+        int n = vlist.size(), m = g.edgeCount();
+
+        int[] toff = new int[n + 1];
+        for (int i = 0; i < t; i++) { toff[ta[i] + 1]++; toff[tb[i] + 1]++; }
+        for (int v = 0; v < n; v++) toff[v + 1] += toff[v];
+        int[] tadj = new int[2 * t], tadjW = new int[2 * t], fill = Arrays.copyOf(toff, n);
+        for (int i = 0; i < t; i++) {
+            tadj[fill[ta[i]]] = tb[i]; tadjW[fill[ta[i]]++] = tw[i];
+            tadj[fill[tb[i]]] = ta[i]; tadjW[fill[tb[i]]++] = tw[i];
+        }
+
+        // one DFS numbers the vertices in post-order; from here on vertices are post ids, so every subtree is an
+        // id interval and the union-find walks mostly nearby slots. order maps post ids back to vertex ids.
+        int[] post = new int[n], order = new int[n], comp = new int[n], parent = new int[n], parentW = new int[n];
+        int[] it = new int[n], stack = new int[n];
+        Arrays.fill(post, -1);
+        int k = 0, trees = 0;
+        for (int s = 0; s < n; s++) {
+            if (post[s] != -1) continue;
+            int sp = 0;
+            stack[sp++] = s;
+            parent[s] = -1;
+            it[s] = toff[s];
+            while (sp > 0) {
+                int v = stack[sp - 1];
+                if (it[v] < toff[v + 1]) {
+                    int i = it[v]++, c = tadj[i];
+                    if (c == parent[v]) continue;
+                    parent[c] = v; parentW[c] = tadjW[i]; it[c] = toff[c];
+                    stack[sp++] = c;
+                    continue;
+                }
+                sp--;
+                comp[k] = trees;
+                order[k] = v;
+                post[v] = k++;
+            }
+            trees++;
+        }
+
+        // each edge is answered at the endpoint that finishes last; a counting sort by that post id lays the
+        // queries out in processing order with the other endpoint and the weight beside them
+        List<Violation> violations = new ArrayList<>();
+        long count = 0;
+        int[] qoff = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            int a = post[eu[e]], b = post[ev[e]];
+            if (comp[a] != comp[b]) {
+                if (count++ < MAX_REPORTED) violations.add(new Violation(new Edge(vlist.get(eu[e]), vlist.get(ev[e]), ew[e]), null));
+                continue;
+            }
+            qoff[Math.max(a, b) + 1]++;
+        }
+        for (int v = 0; v < n; v++) qoff[v + 1] += qoff[v];
+        int[] qOther = new int[qoff[n]], qWeight = new int[qoff[n]], qAt = new int[qoff[n]];
+        fill = Arrays.copyOf(qoff, n);
+        for (int e = 0; e < m; e++) {
+            int a = post[eu[e]], b = post[ev[e]];
+            if (comp[a] != comp[b]) continue;
+            int q = fill[Math.max(a, b)]++;
+            qAt[q] = Math.max(a, b); qOther[q] = Math.min(a, b); qWeight[q] = ew[e];
+        }
+
+        Offline o = new Offline(n, qoff[n]);
+        for (int v = 0; v < n; v++) {
+            for (int q = qoff[v]; q < qoff[v + 1]; q++) {
+                int x = qOther[q], lca = o.find(x);
+                if (lca != v) { o.attach(q, lca); continue; }
+                // x lies in v's subtree, so max[x] already runs up to v
+                if (qWeight[q] < o.max[x] && count++ < MAX_REPORTED) violations.add(violation(vlist, order, parent, qAt[q], x, qWeight[q], o.arg[x], o.max[x]));
+            }
+            for (int q = o.head[v]; q != -1; q = o.next[q]) {
+                int a = qAt[q], b = qOther[q];
+                o.find(a); o.find(b);
+                int max = Math.max(o.max[a], o.max[b]), heavy = o.max[a] >= o.max[b] ? o.arg[a] : o.arg[b];
+                if (qWeight[q] < max && count++ < MAX_REPORTED) violations.add(violation(vlist, order, parent, a, b, qWeight[q], heavy, max));
+            }
+            int p = parent[order[v]];
+            if (p != -1) o.link(v, post[p], parentW[order[v]]);
+        }
+        return new Report(problems, violations, count, trees);
+    }
+
+    private static Violation violation(List<String> vlist, int[] order, int[] parent, int a, int b, int w, int heavy, int max) {
+        int h = order[heavy];
+        return new Violation(new Edge(vlist.get(order[Math.min(a, b)]), vlist.get(order[Math.max(a, b)]), w),
+                new Edge(vlist.get(h), vlist.get(parent[h]), max));
+    }
+
+    private static int root(int[] p, int x) {
+        while (p[x] != x) { p[x] = p[p[x]]; x = p[x]; }
+        return x;
+    }
+
+    // Tarjan's union-find over post ids: up[] links finished vertices towards their open ancestor, max[x] is the
+    // heaviest tree edge from x to up[x] and arg[x] the child endpoint of that edge; queries hang off their LCA in
+    // head/next
+    private static final class Offline {
+        final int[] up, max, arg, head, next, path;
+
+        Offline(int n, int queries) {
+            up = new int[n]; max = new int[n]; arg = new int[n]; path = new int[n];
+            for (int i = 0; i < n; i++) up[i] = i;
+            Arrays.fill(max, Integer.MIN_VALUE);
+            head = new int[n];
+            Arrays.fill(head, -1);
+            next = new int[queries];
+        }
+
+        void attach(int q, int lca) { next[q] = head[lca]; head[lca] = q; }
+
+        void link(int child, int parent, int w) { up[child] = parent; max[child] = w; arg[child] = child; }
+
+        // compresses x's path to its root; afterwards max[x] and arg[x] describe the whole way up
+        int find(int x) {
+            int k = 0;
+            while (up[x] != x) { path[k++] = x; x = up[x]; }
+            int root = x;
+            // walk back down so each node's parent already spans the rest of the way to the root
+            for (int i = k - 2; i >= 0; i--) {
+                int y = path[i], p = up[y];
+                if (max[p] > max[y]) { max[y] = max[p]; arg[y] = arg[p]; }
+                up[y] = root;
+            }
+            return root;
+        }
+    }
+}
@@ -2,12 +2,19 @@
 import java.util.*;
 
 public class Prim {
-    public static AlgoResult findMST(Graph g, String startName) {
+    static final PrimHeap.Kind DEFAULT_HEAP = PrimHeap.Kind.DARY4;
+    static final boolean DEFAULT_LAZY = true;
+
+    public static AlgoResult findMST(Graph g, String startName) { return findMST(g, startName, DEFAULT_HEAP, DEFAULT_LAZY); }
+
+    // lazy: vertices enter the heap when first reached instead of all being queued with INF up front
+    public static AlgoResult findMST(Graph g, String startName, PrimHeap.Kind heap, boolean lazy) {
         if (g == null || g.isEmpty()) return new AlgoResult(new ArrayList<>(), 0);
         Map<String,Integer> idx = g.getIndex();
         List<String> vlist = g.getVertexList();
         int n = vlist.size();
         int start = (startName != null && idx.containsKey(startName)) ? idx.get(startName) : 0;
+        int[] off = g.getOffsets(), ends = g.getEnds(), tgt = g.getTargets(), wt = g.getWeights();
 
         final int INF = Integer.MAX_VALUE / 4;
         int[] key = new int[n];
@@ -16,99 +23,43 @@ public class Prim {
         Arrays.fill(key, INF);
         Arrays.fill(parent, -1);
 
-        MinIndexedBinaryHeap pq = new MinIndexedBinaryHeap(n);
-        for (int v = 0; v < n; v++) pq.insert(v, key[v]);
+        int minKey = 0, maxKey = 0;
+        if (heap == PrimHeap.Kind.BUCKET) {
+            int[] ew = g.getEdgeW();
+            for (int i = 0, m = g.edgeCount(); i < m; i++) { int w = ew[i]; if (w < minKey) minKey = w; if (w > maxKey) maxKey = w; }
+        }
+        MSTMetrics mt = MSTMetrics.start();
+        PrimHeap pq = PrimHeap.create(heap, n, minKey, maxKey, mt);
+        if (!lazy) for (int v = 0; v < n; v++) pq.decrease(v, key[v]);
         pq.decrease(start, 0);
 
         long ops = 0;
         List<Edge> mst = new ArrayList<>(n - 1);
-        while (!pq.isEmpty()) {
+        int unreached = 0;
+        while (true) {
+            if (pq.isEmpty()) {
+                if (!lazy) break;
+                // continue in the next component, as the INF-keyed vertices do in eager mode
+                while (unreached < n && inMST[unreached]) unreached++;
+                if (unreached == n) break;
+                pq.decrease(unreached, INF);
+            }
             int v = pq.pollMinKeyIndex(); ops++;
+            if (MSTMetrics.ENABLED) mt.heapPolls++;
             inMST[v] = true;
             if (parent[v] != -1) mst.add(new Edge(vlist.get(parent[v]), vlist.get(v), key[v]));
-            for (int[] adj : g.neighborsInt(v)) {
-                int u = adj[0];
-                int w = adj[1];
+            if (MSTMetrics.ENABLED) mt.edgesScanned += ends[v] - off[v];
+            for (int i = off[v], end = ends[v]; i < end; i++) {
+                int u = tgt[i];
+                int w = wt[i];
                 if (!inMST[u] && w < key[u]) {
                     key[u] = w;
                     parent[u] = v;
                     pq.decrease(u, w); ops++;
-                }
+                } else if (MSTMetrics.ENABLED) mt.edgesSkipped++;
             }
             if (mst.size() == n - 1) break;
         }
-        return new AlgoResult(mst, ops);
-    }
-
-    static final class MinIndexedBinaryHeap {
-        private final int sizeMax;
-        private int size;
-        private final int[] pm;
-        private final int[] im;
-        private final int[] key;
-
-        MinIndexedBinaryHeap(int maxSize) {
-            this.sizeMax = maxSize;
-            this.size = 0;
-            this.pm = new int[maxSize];
-            this.im = new int[maxSize];
-            this.key = new int[maxSize];
-            Arrays.fill(pm, -1);
-            Arrays.fill(im, -1);
-            Arrays.fill(key, Integer.MAX_VALUE / 4);
-        }
-
-        boolean isEmpty() { return size == 0; }
-        boolean contains(int ki) { return pm[ki] != -1; }
-
-        void insert(int ki, int k) {
-            if (contains(ki)) throw new IllegalArgumentException("index already in heap");
-            pm[ki] = size;
-            im[size] = ki;
-            key[ki] = k;
-            swim(size++);
-        }
-
-        int pollMinKeyIndex() {
-            int minki = im[0];
-            delete(minki);
-            return minki;
-        }
-
-        void decrease(int ki, int k) {
-            if (!contains(ki)) insert(ki, k);
-            else if (k < key[ki]) { key[ki] = k; swim(pm[ki]); }
-        }
-
-        private void delete(int ki) {
-            int i = pm[ki];
-            swap(i, --size);
-            pm[ki] = -1;
-            im[size] = -1;
-            if (i == size) return;
-            swim(i);
-            sink(i);
-        }
-
-        private void swim(int i) {
-            while (i > 0) {
-                int p = (i - 1) >>> 1;
-                if (less(i, p)) { swap(i, p); i = p; } else break;
-            }
-        }
-        private void sink(int i) {
-            while (true) {
-                int l = (i << 1) + 1, r = l + 1, s = i;
-                if (l < size && less(l, s)) s = l;
-                if (r < size && less(r, s)) s = r;
-                if (s != i) { swap(i, s); i = s; } else break;
-            }
-        }
-        private boolean less(int i, int j) { return key[im[i]] < key[im[j]]; }
-        private void swap(int i, int j) {
-            int iKi = im[i], jKi = im[j];
-            im[i] = jKi; im[j] = iKi;
-            pm[iKi] = j; pm[jKi] = i;
-        }
+        return new AlgoResult(mst, ops, mt);
     }
 }
@@ -0,0 +1,242 @@
+
+import java.util.Arrays;
+
+// Indexed min-priority queue over vertex ids 0..n-1 used by Prim. decrease() inserts a vertex that is not
+// queued yet and ignores keys that are not smaller than the current one.
+public interface PrimHeap {
+    boolean isEmpty();
+    boolean contains(int v);
+    int pollMinKeyIndex();
+    void decrease(int v, int k);
+
+    enum Kind { BINARY, DARY4, DARY8, PAIRING, BUCKET }
+
+    // keys passed to decrease() lie in [minKey, maxKey] or are >= Prim's INF placeholder
+    static PrimHeap create(Kind kind, int n, int minKey, int maxKey) { return create(kind, n, minKey, maxKey, null); }
+
+    // metrics (may be null) receives heap inserts, decrease-keys and sift steps
+    static PrimHeap create(Kind kind, int n, int minKey, int maxKey, MSTMetrics metrics) {
+        return switch (kind) {
+            case BINARY -> new DaryHeap(n, 1, metrics);
+            case DARY4 -> new DaryHeap(n, 2, metrics);
+            case DARY8 -> new DaryHeap(n, 3, metrics);
+            case PAIRING -> new PairingHeap(n, metrics);
+            case BUCKET -> (long) maxKey - minKey <= BucketQueue.MAX_RANGE
+                    ? new BucketQueue(n, minKey, maxKey, metrics) : new DaryHeap(n, 2, metrics);
+        };
+    }
+
+    // implicit heap with 2^log children per node; keys live beside the position map, so a sift compares
+    // neighbouring slots of one array instead of chasing im[] into key[]
+    final class DaryHeap implements PrimHeap {
+        private final int log;
+        private int size;
+        private final int[] pm;
+        private final int[] im;
+        private final int[] heapKey;
+        private final MSTMetrics metrics;
+
+        DaryHeap(int maxSize, int log, MSTMetrics metrics) {
+            this.log = log;
+            this.metrics = metrics;
+            this.pm = new int[maxSize];
+            this.im = new int[maxSize];
+            this.heapKey = new int[maxSize];
+            Arrays.fill(pm, -1);
+        }
+
+        @Override public boolean isEmpty() { return size == 0; }
+        @Override public boolean contains(int v) { return pm[v] != -1; }
+
+        @Override public int pollMinKeyIndex() {
+            int min = im[0];
+            int last = --size;
+            pm[min] = -1;
+            if (last > 0) {
+                place(0, im[last], heapKey[last]);
+                sink(0);
+            }
+            return min;
+        }
+
+        @Override public void decrease(int v, int k) {
+            int i = pm[v];
+            if (i == -1) {
+                i = size++; place(i, v, k);
+                if (MSTMetrics.ENABLED && metrics != null) metrics.heapInserts++;
+            } else if (k < heapKey[i]) {
+                heapKey[i] = k;
+                if (MSTMetrics.ENABLED && metrics != null) metrics.decreaseKeys++;
+            } else return;
+            swim(i);
+        }
+
+        private void place(int i, int v, int k) { im[i] = v; heapKey[i] = k; pm[v] = i; }
+
+        private void swim(int i) {
+            int v = im[i], k = heapKey[i];
+            while (i > 0) {
+                int p = (i - 1) >>> log;
+                if (heapKey[p] <= k) break;
+                place(i, im[p], heapKey[p]);
+                i = p;
+                if (MSTMetrics.ENABLED && metrics != null) metrics.siftSteps++;
+            }
+            place(i, v, k);
+        }
+
+        private void sink(int i) {
+            int v = im[i], k = heapKey[i];
+            while (true) {
+                int first = (i << log) + 1;
+                if (first >= size) break;
+                int end = Math.min(size, first + (1 << log));
+                int s = first;
+                for (int c = first + 1; c < end; c++) if (heapKey[c] < heapKey[s]) s = c;
+                if (heapKey[s] >= k) break;
+                place(i, im[s], heapKey[s]);
+                i = s;
+                if (MSTMetrics.ENABLED && metrics != null) metrics.siftSteps++;
+            }
+            place(i, v, k);
+        }
+    }
+
+    // indexed pairing heap: O(1) insert and decrease-key, O(log n) amortized poll
+    final class PairingHeap implements PrimHeap {
+        private static final int NIL = -1;
+        private final int[] key, child, next, prev; // prev is the left sibling, or the parent for a first child
+        private final boolean[] queued;
+        private int[] pairs;
+        private int root = NIL;
+        private final MSTMetrics metrics;
+
+        PairingHeap(int n, MSTMetrics metrics) {
+            this.metrics = metrics;
+            key = new int[n]; child = new int[n]; next = new int[n]; prev = new int[n];
+            queued = new boolean[n];
+            pairs = new int[16];
+        }
+
+        @Override public boolean isEmpty() { return root == NIL; }
+        @Override public boolean contains(int v) { return queued[v]; }
+
+        @Override public void decrease(int v, int k) {
+            if (!queued[v]) {
+                if (MSTMetrics.ENABLED && metrics != null) metrics.heapInserts++;
+                queued[v] = true;
+                key[v] = k;
+                child[v] = next[v] = prev[v] = NIL;
+                root = root == NIL ? v : meld(root, v);
+                return;
+            }
+            if (k >= key[v]) return;
+            key[v] = k;
+            if (MSTMetrics.ENABLED && metrics != null) metrics.decreaseKeys++;
+            if (v == root) return;
+            // detach v's subtree and meld it back at the root
+            int p = prev[v], s = next[v];
+            if (child[p] == v) child[p] = s; else next[p] = s;
+            if (s != NIL) prev[s] = p;
+            next[v] = prev[v] = NIL;
+            root = meld(root, v);
+        }
+
+        @Override public int pollMinKeyIndex() {
+            int min = root;
+            queued[min] = false;
+            int c = child[min];
+            child[min] = NIL;
+            if (c == NIL) { root = NIL; return min; }
+
+            // first pass: meld siblings pairwise left to right
+            int count = 0;
+            while (c != NIL) {
+                int a = c, b = next[a];
+                c = b == NIL ? NIL : next[b];
+                next[a] = prev[a] = NIL;
+                if (b != NIL) { next[b] = prev[b] = NIL; a = meld(a, b); }
+                if (count == pairs.length) pairs = Arrays.copyOf(pairs, count << 1);
+                pairs[count++] = a;
+            }
+            // second pass: meld the pairs right to left
+            int r = pairs[--count];
+            while (count > 0) r = meld(pairs[--count], r);
+            root = r;
+            return min;
+        }
+
+        // a meld is the pairing heap's sift step
+        private int meld(int a, int b) {
+            if (MSTMetrics.ENABLED && metrics != null) metrics.siftSteps++;
+            if (key[b] < key[a]) { int t = a; a = b; b = t; }
+            int c = child[a];
+            next[b] = c;
+            if (c != NIL) prev[c] = b;
+            prev[b] = a;
+            child[a] = b;
+            return a;
+        }
+    }
+
+    // one LIFO list per key for small integer key ranges; the scan pointer moves back when a smaller key
+    // arrives, since Prim's extracted keys are not monotone. Keys at or above INF share the last bucket.
+    final class BucketQueue implements PrimHeap {
+        static final int MAX_RANGE = 1 << 16;
+        private static final int NIL = -1;
+        private final int minKey, overflow;
+        private final int[] head, next, prev, bucket;
+        private int size, cur;
+        private final MSTMetrics metrics;
+
+        BucketQueue(int n, int minKey, int maxKey, MSTMetrics metrics) {
+            this.metrics = metrics;
+            this.minKey = minKey;
+            this.overflow = maxKey - minKey + 1;
+            head = new int[overflow + 1];
+            Arrays.fill(head, NIL);
+            next = new int[n]; prev = new int[n]; bucket = new int[n];
+            Arrays.fill(bucket, NIL);
+        }
+
+        @Override public boolean isEmpty() { return size == 0; }
+        @Override public boolean contains(int v) { return bucket[v] != NIL; }
+
+        @Override public void decrease(int v, int k) {
+            int b = Math.min(k - minKey, overflow);
+            int old = bucket[v];
+            if (old != NIL) {
+                if (b >= old) return;
+                unlink(v, old);
+                if (MSTMetrics.ENABLED && metrics != null) metrics.decreaseKeys++;
+            } else {
+                size++;
+                if (MSTMetrics.ENABLED && metrics != null) metrics.heapInserts++;
+            }
+            bucket[v] = b;
+            prev[v] = NIL;
+            next[v] = head[b];
+            if (head[b] != NIL) prev[head[b]] = v;
+            head[b] = v;
+            if (b < cur) cur = b;
+        }
+
+        @Override public int pollMinKeyIndex() {
+            while (head[cur] == NIL) {
+                cur++;
+                if (MSTMetrics.ENABLED && metrics != null) metrics.siftSteps++;
+            }
+            int v = head[cur];
+            unlink(v, cur);
+            bucket[v] = NIL;
+            size--;
+            return v;
+        }
+
+        private void unlink(int v, int b) {
+            int p = prev[v], s = next[v];
+            if (p == NIL) head[b] = s; else next[p] = s;
+            if (s != NIL) prev[s] = p;
+        }
+    }
+}
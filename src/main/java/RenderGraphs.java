@@ -1,146 +1,217 @@
-import com.google.gson.*;
 import java.awt.*;
 import java.awt.geom.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
+// Draws each graph on a circular layout with its Kruskal tree highlighted, batching each layer into one Path2D
+// and dropping labels, antialiasing and names as graphs grow.
 public class RenderGraphs {
+    static {
+        // before any AWT class loads; an explicit -Djava.awt.headless wins
+        if (System.getProperty("java.awt.headless") == null) System.setProperty("java.awt.headless", "true");
+    }
+
+    static final int LABEL_MAX_EDGES = 400;
+    static final int FADE_EDGES = 2000;
+    static final int AA_MAX_EDGES = 2000;
+    static final int NAME_MAX_VERTICES = 120;
+
+    private static final int W = 1400, H = 900, MARGIN = 80;
+    private static final Color BACKGROUND = new Color(250, 250, 252);
+    private static final Color TREE = new Color(220, 50, 47);
+    private static final Color EDGE = new Color(180, 190, 200);
+    private static final Color EDGE_FADED = new Color(230, 233, 237); // EDGE at ~30% over BACKGROUND, opaque
+    private static final Color LABEL = new Color(90, 90, 100);
+    private static final Color VERTEX = new Color(52, 101, 164);
+    private static final BasicStroke TREE_STROKE = new BasicStroke(4.5f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private static final BasicStroke TREE_THIN = new BasicStroke(1.2f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private static final BasicStroke EDGE_STROKE = new BasicStroke(2f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private static final BasicStroke FADED_STROKE = new BasicStroke(1f);
+    private static final Font BASE = new Font(Font.DIALOG, Font.PLAIN, 12);
+    private static final Font TITLE_FONT = BASE.deriveFont(Font.BOLD, 28f);
+    private static final Font LABEL_FONT = BASE.deriveFont(Font.PLAIN, 16f);
+    private static final Font NAME_FONT = BASE.deriveFont(Font.BOLD, 15f);
 
     public static void main(String[] args) throws Exception { run(); }
 
     public static Path run() throws Exception {
-        List<Path> inputs = findInputs();
-        if (inputs.isEmpty()) throw new IllegalStateException("No ass_3_input_*.json found");
-
         Path outDir = Paths.get("target", "graphs");
-        Files.createDirectories(outDir);
-
-        for (Path p : inputs) {
-            JsonObject root = readJson(p);
-            JsonArray graphs = root.getAsJsonArray("graphs");
-            if (graphs == null || graphs.size() == 0) continue;
-
-            for (JsonElement ge : graphs) {
-                JsonObject gObj = ge.getAsJsonObject();
-                String label = gObj.get("label").getAsString();
-                int id = gObj.get("id").getAsInt();
-                JsonArray nodes = gObj.getAsJsonArray("nodes");
-                JsonArray edges = gObj.getAsJsonArray("edges");
-
-                Graph g = new Graph();
-                Set<String> nodeNames = new LinkedHashSet<>();
-                for (JsonElement n : nodes) nodeNames.add(n.getAsString());
-                for (JsonElement ee : edges) {
-                    JsonObject e = ee.getAsJsonObject();
-                    g.addEdge(e.get("from").getAsString(), e.get("to").getAsString(), e.get("weight").getAsInt());
-                }
+        MSTPipeline.run(MSTPipeline.inputs(Paths.get("")), new BatchRunner.Options(), List.of(new Sink(outDir)));
+        return outDir;
+    }
 
-                AlgoResult mst = Kruskal.findMST(g);
-                Set<String> mstPairs = new HashSet<>();
-                for (Edge e : mst.edges) {
-                    String a = e.from, b = e.to;
-                    if (a.compareTo(b) > 0) { String t = a; a = b; b = t; }
-                    mstPairs.add(a + "|" + b);
-                }
+    // draws each graph with its Kruskal tree highlighted into outDir/<input>__<id>.png
+    static class Sink implements ResultSink {
+        private final Path outDir;
+        private final ExecutorService renderers, writer;
+        private final Semaphore pending;
+        private final List<Future<?>> writes = new ArrayList<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Sink(Path outDir) throws IOException { this(outDir, Runtime.getRuntime().availableProcessors()); }
+
+        Sink(Path outDir, int threads) throws IOException {
+            this.outDir = outDir;
+            Files.createDirectories(outDir);
+            renderers = Executors.newFixedThreadPool(threads);
+            writer = Executors.newSingleThreadExecutor();
+            pending = new Semaphore(2 * threads);
+        }
 
-                BufferedImage img = drawGraph(nodeNames, edges, mstPairs, label);
-                Path out = outDir.resolve(p.getFileName().toString().replace(".json", "")
-                        + "__" + id + ".png");
-                javax.imageio.ImageIO.write(img, "png", out.toFile());
+        @Override public void accept(SolvedGraph r) throws IOException {
+            check();
+            try {
+                pending.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
             }
+            Path out = outDir.resolve(r.file.replace(".json", "") + "__" + r.item.id + ".png");
+            CompletableFuture<Void> done = CompletableFuture
+                    .supplyAsync(() -> drawGraph(r.item.nodes, r.item.graph, r.kruskal, r.item.label), renderers)
+                    .thenAcceptAsync(img -> {
+                        try {
+                            javax.imageio.ImageIO.write(img, "png", out.toFile());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, writer)
+                    .whenComplete((v, t) -> {
+                        if (t != null) failure.compareAndSet(null, t instanceof CompletionException ? t.getCause() : t);
+                        pending.release();
+                    });
+            writes.add(done);
+        }
+
+        // waits for every pending image
+        @Override public void close() throws IOException {
+            try {
+                for (Future<?> f : writes) {
+                    try { f.get(); } catch (ExecutionException ignored) { } // recorded in failure
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } finally {
+                renderers.shutdownNow();
+                writer.shutdownNow();
+            }
+            check();
+        }
+
+        private void check() throws IOException {
+            Throwable t = failure.get();
+            if (t == null) return;
+            if (t instanceof UncheckedIOException u) throw u.getCause();
+            if (t instanceof IOException e) throw e;
+            if (t instanceof Error e) throw e;
+            throw new IOException(t);
         }
-        return outDir;
     }
 
-    private static BufferedImage drawGraph(Set<String> nodes, JsonArray edges, Set<String> mstPairs, String title) {
-        int W = 1400, H = 900;
-        int margin = 80;
-        BufferedImage img = new BufferedImage(W, H, BufferedImage.TYPE_INT_ARGB);
+    static BufferedImage drawGraph(List<String> nodeList, Graph graph, AlgoResult result, String title) {
+        BufferedImage img = new BufferedImage(W, H, BufferedImage.TYPE_INT_RGB);
         Graphics2D g = img.createGraphics();
         g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-        g.setColor(new Color(250, 250, 252));
+        g.setColor(BACKGROUND);
         g.fillRect(0, 0, W, H);
 
         g.setColor(Color.DARK_GRAY);
-        g.setFont(g.getFont().deriveFont(Font.BOLD, 28f));
-        g.drawString(title, margin, margin - 20);
+        g.setFont(TITLE_FONT);
+        g.drawString(title, MARGIN, MARGIN - 20);
 
+        // layout slots follow the input's node order; x/y are indexed by graph vertex id
+        Set<String> nodes = new LinkedHashSet<>(nodeList);
         int n = Math.max(1, nodes.size());
         double cx = W / 2.0, cy = H / 2.0, R = Math.min(W, H) * 0.35;
-        Map<String, Point2D.Double> pos = new LinkedHashMap<>();
-        int idx = 0;
+        Map<String,Integer> index = graph.getIndex();
+        int vn = graph.getVertexList().size();
+        float[] x = new float[vn], y = new float[vn];
+        boolean[] placed = new boolean[vn];
+        float[] nx = new float[nodes.size()], ny = new float[nodes.size()];
+        int slot = 0;
         for (String name : nodes) {
-            double ang = (2 * Math.PI * idx) / n - Math.PI / 2;
-            pos.put(name, new Point2D.Double(cx + R * Math.cos(ang), cy + R * Math.sin(ang)));
-            idx++;
+            double ang = (2 * Math.PI * slot) / n - Math.PI / 2;
+            nx[slot] = (float) (cx + R * Math.cos(ang));
+            ny[slot] = (float) (cy + R * Math.sin(ang));
+            Integer id = index.get(name);
+            if (id != null) { x[id] = nx[slot]; y[id] = ny[slot]; placed[id] = true; }
+            slot++;
         }
 
-        g.setStroke(new BasicStroke(2f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-        for (JsonElement ee : edges) {
-            JsonObject e = ee.getAsJsonObject();
-            String a = e.get("from").getAsString();
-            String b = e.get("to").getAsString();
-            int w = e.get("weight").getAsInt();
-
-            String x = a, y = b;
-            if (x.compareTo(y) > 0) { String t = x; x = y; y = t; }
-            boolean inMst = mstPairs.contains(x + "|" + y);
-
-            Point2D pa = pos.get(a), pb = pos.get(b);
-            if (pa == null || pb == null) continue;
-
-            if (inMst) {
-                g.setColor(new Color(220, 50, 47));
-                g.setStroke(new BasicStroke(4.5f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-            } else {
-                g.setColor(new Color(180, 190, 200));
-                g.setStroke(new BasicStroke(2f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-            }
-            g.draw(new Line2D.Double(pa, pb));
+        int[] eu = graph.getEdgeU(), ev = graph.getEdgeV(), ew = graph.getEdgeW();
+        int m = graph.edgeCount();
+        BitSet inTree = treeEdges(graph, result);
+        Path2D.Float rest = new Path2D.Float(Path2D.WIND_NON_ZERO, 2 * m), mst = new Path2D.Float(Path2D.WIND_NON_ZERO, 2 * result.edges.size());
+        for (int i = 0; i < m; i++) {
+            int a = eu[i], b = ev[i];
+            if (!placed[a] || !placed[b]) continue;
+            Path2D.Float p = inTree.get(i) ? mst : rest;
+            p.moveTo(x[a], y[a]);
+            p.lineTo(x[b], y[b]);
+        }
 
-            g.setColor(new Color(90, 90, 100));
-            g.setFont(g.getFont().deriveFont(Font.PLAIN, 16f));
-            double tx = (pa.getX() + pb.getX()) / 2.0;
-            double ty = (pa.getY() + pb.getY()) / 2.0;
-            g.drawString(String.valueOf(w), (float) tx, (float) ty);
+        boolean fade = m > FADE_EDGES;
+        if (m > AA_MAX_EDGES) g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        g.setColor(fade ? EDGE_FADED : EDGE);
+        g.setStroke(fade ? FADED_STROKE : EDGE_STROKE);
+        g.draw(rest);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(TREE);
+        g.setStroke(nodes.size() <= NAME_MAX_VERTICES ? TREE_STROKE : TREE_THIN);
+        g.draw(mst);
+
+        if (m <= LABEL_MAX_EDGES) {
+            g.setColor(LABEL);
+            g.setFont(LABEL_FONT);
+            for (int i = 0; i < m; i++) {
+                int a = eu[i], b = ev[i];
+                if (!placed[a] || !placed[b]) continue;
+                g.drawString(String.valueOf(ew[i]), (x[a] + x[b]) / 2f, (y[a] + y[b]) / 2f);
+            }
         }
 
-        int r = 20;
-        for (Map.Entry<String, Point2D.Double> e : pos.entrySet()) {
-            Point2D p = e.getValue();
-            Shape circle = new Ellipse2D.Double(p.getX() - r, p.getY() - r, 2 * r, 2 * r);
-            g.setColor(new Color(52, 101, 164));
-            g.fill(circle);
+        // discs keep their old 20 px radius while they fit on the circle, then shrink to at least 2 px
+        float r = (float) Math.max(2, Math.min(20, Math.PI * R / n * 0.8));
+        Path2D.Float discs = new Path2D.Float();
+        for (int i = 0; i < nx.length; i++) discs.append(new Ellipse2D.Float(nx[i] - r, ny[i] - r, 2 * r, 2 * r), false);
+        g.setColor(VERTEX);
+        g.fill(discs);
+        if (nodes.size() <= NAME_MAX_VERTICES) {
             g.setColor(Color.WHITE);
-            g.setFont(g.getFont().deriveFont(Font.BOLD, 15f));
-            String name = e.getKey();
-            Rectangle2D tb = g.getFontMetrics().getStringBounds(name, g);
-            g.drawString(name, (float) (p.getX() - tb.getWidth() / 2), (float) (p.getY() + 5));
+            g.setFont(NAME_FONT);
+            FontMetrics fm = g.getFontMetrics();
+            int i = 0;
+            for (String name : nodes) {
+                Rectangle2D tb = fm.getStringBounds(name, g);
+                g.drawString(name, (float) (nx[i] - tb.getWidth() / 2), ny[i] + 5);
+                i++;
+            }
         }
 
         g.dispose();
         return img;
     }
 
-    private static List<Path> findInputs() throws IOException {
-        Path root = Paths.get("").toAbsolutePath();
-        try (var s = Files.walk(root, 2)) {
-            return s.filter(p -> {
-                String name = p.getFileName().toString();
-                return name.startsWith("ass_3_input_") && name.endsWith(".json");
-            }).sorted().collect(Collectors.toList());
-        }
-    }
-
-    private static JsonObject readJson(Path p) throws IOException {
-        try (Reader r = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
-            return JsonParser.parseReader(r).getAsJsonObject();
+    // indices of the graph edges in the tree: the engine's own BitSet when it solved this graph, else looked up by name
+    private static BitSet treeEdges(Graph graph, AlgoResult result) {
+        if (result.tree != null && result.tree.sameGraph(graph)) return result.tree.selected();
+        Map<String,Integer> index = graph.getIndex();
+        LongIntMap pairs = new LongIntMap(Math.max(16, result.edges.size()));
+        for (Edge e : result.edges) {
+            Integer a = index.get(e.from), b = index.get(e.to);
+            if (a != null && b != null) pairs.put(LongIntMap.pair(a, b), 1);
         }
+        int[] eu = graph.getEdgeU(), ev = graph.getEdgeV();
+        int m = graph.edgeCount();
+        BitSet in = new BitSet(m);
+        for (int i = 0; i < m; i++) if (pairs.get(LongIntMap.pair(eu[i], ev[i])) != LongIntMap.MISSING) in.set(i);
+        return in;
     }
 }
@@ -0,0 +1,8 @@
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Receives every solved graph of a pass, in input order; close() finishes the artifact.
+public interface ResultSink extends Closeable {
+    void accept(SolvedGraph r) throws IOException;
+}
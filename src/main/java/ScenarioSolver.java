@@ -0,0 +1,181 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Minimum spanning forests of one frozen topology under many int[] weight vectors indexed like getEdgeU/V.
+//   java ScenarioSolver [family] [n] [degree] [scenarios]   times cold Graph + Kruskal against solve()
+public final class ScenarioSolver {
+    private final int n, m, treeSize;
+    private final int[] eu, ev;
+    private final List<String> names;
+    private final Map<String,Integer> ids;
+    private final LongIntMap edgeAt;
+    private final ConcurrentLinkedQueue<Buffers> free = new ConcurrentLinkedQueue<>();
+
+    // scenario s owns tree[s * treeSize .. (s + 1) * treeSize): its edge indices in the order Kruskal took them
+    public static final class Result {
+        public final int scenarios, treeSize;
+        public final long[] cost;
+        public final int[] tree;
+        public final long operations;
+
+        Result(int scenarios, int treeSize, long[] cost, int[] tree, long operations) {
+            this.scenarios = scenarios; this.treeSize = treeSize; this.cost = cost; this.tree = tree; this.operations = operations;
+        }
+
+        public int edge(int scenario, int i) { Objects.checkIndex(i, treeSize); return tree[scenario * treeSize + i]; }
+    }
+
+    private static final class Buffers {
+        final long[] keys, scratch;
+        final int[] count = new int[1 << Kruskal.RADIX_BITS];
+        final int[] parent, rank;
+        long ops;
+        Buffers(int n, int m) { keys = new long[m]; scratch = new long[m]; parent = new int[n]; rank = new int[n]; }
+    }
+
+    public static void main(String[] args) throws Exception {
+        GraphGenerator.Spec spec = new GraphGenerator.Spec();
+        spec.family = GraphGenerator.Family.valueOf(args.length > 0 ? args[0].toUpperCase(Locale.ROOT) : "ER");
+        spec.n = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        spec.degree = args.length > 2 ? Double.parseDouble(args[2]) : 8;
+        int k = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        Graph g = GraphGenerator.generate(spec);
+        int[] gu = g.getEdgeU(), gv = g.getEdgeV(), base = g.getEdgeW();
+        List<String> vl = g.getVertexList();
+        // time-of-day style scenarios: every edge scaled by a per-scenario factor plus its own noise
+        List<int[]> scenarios = new ArrayList<>(k);
+        SplittableRandom rnd = new SplittableRandom(spec.seed);
+        for (int s = 0; s < k; s++) {
+            int[] w = new int[g.edgeCount()];
+            double f = 0.5 + rnd.nextDouble();
+            for (int e = 0; e < w.length; e++) w[e] = (int) (base[e] * f) + rnd.nextInt(16);
+            scenarios.add(w);
+        }
+
+        long t0 = System.nanoTime(), cold = 0;
+        for (int[] w : scenarios) {
+            Graph c = new Graph();
+            for (int e = 0; e < w.length; e++) c.addEdge(vl.get(gu[e]), vl.get(gv[e]), w[e]);
+            cold += Kruskal.findMST(c).tree.cost;
+        }
+        long t1 = System.nanoTime();
+        ScenarioSolver solver = new ScenarioSolver(g);
+        long t2 = System.nanoTime();
+        Result serial = solver.solve(scenarios, null);
+        long t3 = System.nanoTime();
+        Result parallel = solver.solve(scenarios);
+        long t4 = System.nanoTime();
+        long sum = 0;
+        for (long c : parallel.cost) sum += c;
+        System.out.printf(Locale.US, "%s n=%d m=%d, %d scenarios: cold Graph + Kruskal %.1f ms, freeze %.1f ms, serial %.1f ms, pool(%d) %.1f ms, costs %s%n",
+                spec.family, g.vertexCount(), g.edgeCount(), k, (t1 - t0) / 1e6, (t2 - t1) / 1e6, (t3 - t2) / 1e6,
+                ForkJoinPool.commonPool().getParallelism(), (t4 - t3) / 1e6,
+                sum == cold && Arrays.equals(serial.cost, parallel.cost) ? "agree" : "DIFFER");
+    }
+
+    public ScenarioSolver(Graph topology) {
+        // ids are stable and names only ever appended, so the graph's live views stay valid for ids below n
+        names = topology.getVertexList();
+        ids = topology.getIndex();
+        n = names.size();
+        m = topology.edgeCount();
+        eu = Arrays.copyOf(topology.getEdgeU(), m);
+        ev = Arrays.copyOf(topology.getEdgeV(), m);
+        edgeAt = new LongIntMap(m);
+        int[] p = new int[n];
+        for (int i = 0; i < n; i++) p[i] = i;
+        int joined = 0;
+        for (int e = 0; e < m; e++) {
+            edgeAt.put(LongIntMap.pair(eu[e], ev[e]), e);
+            int a = root(p, eu[e]), b = root(p, ev[e]);
+            if (a != b) { p[a] = b; joined++; }
+        }
+        treeSize = joined;
+    }
+
+    public int vertexCount() { return n; }
+    public int edgeCount() { return m; }
+    public int treeSize() { return treeSize; }
+    public int u(int edge) { return eu[edge]; }
+    public int v(int edge) { return ev[edge]; }
+    public String name(int vertex) { return names.get(vertex); }
+
+    // index of the undirected edge a-b in a weight vector, or -1
+    public int edge(String a, String b) {
+        Integer ia = ids.get(a), ib = ids.get(b);
+        if (ia == null || ib == null || ia >= n || ib >= n) return -1;
+        return edgeAt.get(LongIntMap.pair(ia, ib));
+    }
+
+    public Result solve(List<int[]> weights) { return solve(weights, ForkJoinPool.commonPool()); }
+
+    // pool may be null to solve every scenario on the caller
+    public Result solve(List<int[]> weights, ForkJoinPool pool) {
+        int k = weights.size();
+        for (int[] w : weights) if (w.length != m) throw new IllegalArgumentException("expected " + m + " weights, got " + w.length);
+        long[] cost = new long[k];
+        int[] tree = new int[Math.multiplyExact(k, treeSize)];
+        AtomicInteger next = new AtomicInteger();
+        int tasks = pool == null ? 1 : Math.max(1, Math.min(k, pool.getParallelism()));
+        long[] ops = new long[tasks];
+        if (tasks == 1) ops[0] = run(weights, next, cost, tree);
+        else {
+            List<ForkJoinTask<?>> all = new ArrayList<>(tasks);
+            for (int t = 0; t < tasks; t++) {
+                int slot = t;
+                all.add(ForkJoinTask.adapt(() -> { ops[slot] = run(weights, next, cost, tree); }));
+            }
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(all)));
+        }
+        long total = 0;
+        for (long o : ops) total += o;
+        return new Result(k, treeSize, cost, tree, total);
+    }
+
+    // claims scenarios until none are left; returns the work done
+    private long run(List<int[]> weights, AtomicInteger next, long[] cost, int[] tree) {
+        Buffers b = free.poll();
+        if (b == null) b = new Buffers(n, m);
+        b.ops = 0;
+        try {
+            for (int s; (s = next.getAndIncrement()) < weights.size(); ) cost[s] = solve(weights.get(s), b, tree, s * treeSize);
+            return b.ops;
+        } finally {
+            free.add(b);
+        }
+    }
+
+    private long solve(int[] w, Buffers b, int[] tree, int at) {
+        long[] keys = b.keys;
+        int minW = Integer.MAX_VALUE, maxW = Integer.MIN_VALUE;
+        for (int x : w) { if (x < minW) minW = x; if (x > maxW) maxW = x; }
+        for (int i = 0; i < m; i++) keys[i] = ((long) w[i] - minW) << 32 | i;
+        b.ops += m == 0 ? 0 : Kruskal.sortKeys(keys, (long) maxW - minW, b.scratch, b.count);
+
+        int[] parent = b.parent, rank = b.rank;
+        for (int i = 0; i < n; i++) { parent[i] = i; rank[i] = 0; }
+        long c = 0;
+        int taken = 0;
+        for (int i = 0; i < m && taken < treeSize; i++) {
+            int e = (int) keys[i];
+            int ru = root(parent, eu[e]), rv = root(parent, ev[e]);
+            b.ops += 2;
+            if (ru == rv) continue;
+            if (rank[ru] < rank[rv]) parent[ru] = rv;
+            else if (rank[ru] > rank[rv]) parent[rv] = ru;
+            else { parent[rv] = ru; rank[ru]++; }
+            tree[at + taken++] = e;
+            c += w[e];
+            b.ops++;
+        }
+        return c;
+    }
+
+    private static int root(int[] p, int x) {
+        while (p[x] != x) { p[x] = p[p[x]]; x = p[x]; }
+        return x;
+    }
+}
@@ -0,0 +1,50 @@
+
+import java.util.List;
+
+// One input graph with the results of every engine, as produced by BatchRunner. In a verified batch only Kruskal
+// runs: prim and boruvka are null and verification certifies the Kruskal tree instead.
+public class SolvedGraph {
+    public final long seq;
+    public final String file;
+    public final GraphReader.Item item;
+    public final AlgoResult prim, kruskal, boruvka;
+    public final double primMs, kruskalMs, boruvkaMs;
+    public final SpanningForest forest; // per-component trees, null when the graph is connected
+    public final MSTVerifier.Report verification; // null unless the batch verifies
+    public final double verifyMs;
+
+    SolvedGraph(long seq, String file, GraphReader.Item item,
+                AlgoResult prim, double primMs, AlgoResult kruskal, double kruskalMs, AlgoResult boruvka, double boruvkaMs,
+                SpanningForest forest, MSTVerifier.Report verification, double verifyMs) {
+        this.seq = seq; this.file = file; this.item = item;
+        this.prim = prim; this.primMs = primMs;
+        this.kruskal = kruskal; this.kruskalMs = kruskalMs;
+        this.boruvka = boruvka; this.boruvkaMs = boruvkaMs;
+        this.forest = forest;
+        this.verification = verification; this.verifyMs = verifyMs;
+    }
+
+    public int vertices() { return item.nodes.size(); }
+    public int edges() { return item.edgeCount; }
+    public int expectedEdges() { return Math.max(0, vertices() - 1); }
+
+    public boolean spans(AlgoResult r) { return r == null || r.edges.size() == expectedEdges(); }
+    public boolean connected() { return spans(prim) && spans(kruskal) && spans(boruvka); }
+
+    // the engines that ran agree, and the verifier accepted Kruskal's tree when it ran
+    public boolean costsEqual() {
+        long k = cost(kruskal);
+        return connected() && (prim == null || cost(prim) == k) && (boruvka == null || cost(boruvka) == k)
+                && (verification == null || verification.ok());
+    }
+
+    public String faster() {
+        if (!connected()) return "n/a";
+        double p = prim == null ? Double.MAX_VALUE : primMs, b = boruvka == null ? Double.MAX_VALUE : boruvkaMs;
+        if (p <= kruskalMs && p <= b) return "prim";
+        return kruskalMs <= b ? "kruskal" : "boruvka";
+    }
+
+    public static long cost(AlgoResult r) { return r.tree != null ? r.tree.cost : sumWeight(r.edges); }
+    private static long sumWeight(List<Edge> es){ long s=0; for (Edge e: es) s+=e.weight; return s; }
+}
@@ -0,0 +1,168 @@
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Minimum spanning forest: components labelled over the CSR, then Kruskal per component, in parallel on large
+// graphs. The union of the trees is Kruskal's edge set.
+public class SpanningForest {
+    static final int PARALLEL_MIN_EDGES = 1 << 15;
+    static final int BATCH_EDGES = 1 << 13;
+
+    public static final class Tree {
+        public final String root; // smallest vertex name of the component
+        public final int vertices;
+        public final long cost;
+        public final List<Edge> edges;
+        Tree(String root, int vertices, long cost, List<Edge> edges) {
+            this.root = root; this.vertices = vertices; this.cost = cost; this.edges = edges;
+        }
+    }
+
+    public final List<Tree> trees;
+    public final long operations;
+
+    private SpanningForest(List<Tree> trees, long operations) { this.trees = trees; this.operations = operations; }
+
+    public int components() { return trees.size(); }
+
+    public long cost() {
+        long s = 0;
+        for (Tree t : trees) s += t.cost;
+        return s;
+    }
+
+    // every tree edge, component by component
+    public AlgoResult toResult() {
+        List<Edge> all = new ArrayList<>();
+        for (Tree t : trees) all.addAll(t.edges);
+        return new AlgoResult(all, operations);
+    }
+
+    public static SpanningForest find(Graph g) { return find(g, List.of(), ForkJoinPool.commonPool()); }
+
+    // nodes lists vertices that may have no edge (an input's "nodes"); each one missing from g becomes a
+    // single-vertex tree in name order with the rest. pool may be null to solve every component on the caller.
+    public static SpanningForest find(Graph g, List<String> nodes, ForkJoinPool pool) {
+        List<String> vlist = g.getVertexList();
+        int n = vlist.size();
+        int[] off = g.getOffsets(), ends = g.getEnds(), tgt = g.getTargets();
+        int[] eu = g.getEdgeU(), ev = g.getEdgeV(), ew = g.getEdgeW();
+        int m = g.edgeCount();
+
+        int[] comp = new int[n];
+        Arrays.fill(comp, -1);
+        int[] order = new int[n];
+        int[] vstart = new int[n + 1];
+        int k = 0, tail = 0;
+        for (int s = 0; s < n; s++) {
+            if (comp[s] != -1) continue;
+            vstart[k] = tail;
+            comp[s] = k;
+            order[tail++] = s;
+            for (int head = vstart[k]; head < tail; head++) {
+                int v = order[head];
+                for (int i = off[v], end = ends[v]; i < end; i++) {
+                    int t = tgt[i];
+                    if (comp[t] == -1) { comp[t] = k; order[tail++] = t; }
+                }
+            }
+            k++;
+        }
+        vstart[k] = n;
+
+        int[] estart = new int[k + 1];
+        for (int e = 0; e < m; e++) estart[comp[eu[e]] + 1]++;
+        for (int c = 0; c < k; c++) estart[c + 1] += estart[c];
+        int[] byComp = new int[m];
+        int[] fill = Arrays.copyOf(estart, k);
+        for (int e = 0; e < m; e++) byComp[fill[comp[eu[e]]]++] = e;
+
+        Solver s = new Solver(order, vstart, estart, byComp, eu, ev, ew, n, k);
+        long ops = (long) n + 2L * m;
+        if (pool == null || m < PARALLEL_MIN_EDGES) {
+            ops += s.solve(0, k);
+        } else {
+            List<ForkJoinTask<Long>> tasks = new ArrayList<>();
+            for (int c0 = 0, c = 0; c < k; ) {
+                int edges = 0;
+                while (c < k && edges < BATCH_EDGES) { edges += estart[c + 1] - estart[c]; c++; }
+                int from = c0, to = c;
+                tasks.add(ForkJoinTask.adapt(() -> s.solve(from, to)));
+                c0 = c;
+            }
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+            for (ForkJoinTask<Long> t : tasks) ops += t.join();
+        }
+
+        List<Tree> trees = new ArrayList<>(k);
+        for (int c = 0; c < k; c++) {
+            int size = vstart[c + 1] - vstart[c], slot = vstart[c] - c;
+            List<Edge> edges = new ArrayList<>(size - 1);
+            for (int j = slot; j < slot + size - 1; j++) {
+                int e = s.tree[j];
+                edges.add(new Edge(vlist.get(eu[e]), vlist.get(ev[e]), ew[e]));
+            }
+            String root = vlist.get(order[vstart[c]]);
+            for (int j = vstart[c] + 1; j < vstart[c + 1]; j++) if (vlist.get(order[j]).compareTo(root) < 0) root = vlist.get(order[j]);
+            trees.add(new Tree(root, size, s.cost[c], edges));
+        }
+        Map<String,Integer> idx = g.getIndex();
+        for (String v : new HashSet<>(nodes)) if (!idx.containsKey(v)) trees.add(new Tree(v, 1, 0, List.of()));
+        // ids follow first appearance, so put the components in name order as reports expect
+        trees.sort(Comparator.comparing((Tree t) -> t.root));
+        return new SpanningForest(trees, ops);
+    }
+
+    private static final class Solver {
+        final int[] order, vstart, estart, byComp, eu, ev, ew;
+        final int[] parent, rank, tree;
+        final long[] cost;
+
+        Solver(int[] order, int[] vstart, int[] estart, int[] byComp, int[] eu, int[] ev, int[] ew, int n, int k) {
+            this.order = order; this.vstart = vstart; this.estart = estart; this.byComp = byComp;
+            this.eu = eu; this.ev = ev; this.ew = ew;
+            parent = new int[n]; rank = new int[n];
+            tree = new int[n - k];
+            cost = new long[k];
+        }
+
+        // Kruskal on components [c0, c1); returns the operation count
+        long solve(int c0, int c1) {
+            long ops = 0;
+            for (int c = c0; c < c1; c++) {
+                int need = vstart[c + 1] - vstart[c] - 1;
+                if (need == 0) continue;
+                int from = estart[c], cnt = estart[c + 1] - from;
+                int minW = Integer.MAX_VALUE, maxW = Integer.MIN_VALUE;
+                for (int i = from; i < from + cnt; i++) { int w = ew[byComp[i]]; if (w < minW) minW = w; if (w > maxW) maxW = w; }
+                long[] keys = new long[cnt];
+                for (int i = 0; i < cnt; i++) { int e = byComp[from + i]; keys[i] = ((long) ew[e] - minW) << 32 | e; }
+                ops += Kruskal.sortKeys(keys, (long) maxW - minW);
+                for (int i = vstart[c]; i < vstart[c + 1]; i++) parent[order[i]] = order[i];
+
+                int slot = vstart[c] - c, taken = 0;
+                long sum = 0;
+                for (int i = 0; i < cnt && taken < need; i++) {
+                    int e = (int) keys[i];
+                    int ru = find(eu[e]), rv = find(ev[e]);
+                    ops += 2;
+                    if (ru == rv) continue;
+                    if (rank[ru] < rank[rv]) parent[ru] = rv;
+                    else if (rank[ru] > rank[rv]) parent[rv] = ru;
+                    else { parent[rv] = ru; rank[ru]++; }
+                    tree[slot + taken++] = e;
+                    sum += ew[e];
+                    ops++;
+                }
+                cost[c] = sum;
+            }
+            return ops;
+        }
+
+        private int find(int x) {
+            while (parent[x] != x) { parent[x] = parent[parent[x]]; x = parent[x]; }
+            return x;
+        }
+    }
+}
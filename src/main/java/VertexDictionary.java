@@ -0,0 +1,20 @@
+
+import java.util.*;
+
+// Dense int ids for vertex names; one dictionary can be shared by every graph of a file.
+public class VertexDictionary {
+    private final Map<String,Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+        ids.put(name, names.size());
+        names.add(name);
+        return names.size() - 1;
+    }
+
+    public int idOf(String name) { Integer id = ids.get(name); return id == null ? -1 : id; }
+    public String name(int id) { return names.get(id); }
+    public int size() { return names.size(); }
+}
@@ -2,7 +2,6 @@
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
-import com.google.gson.*;
 import java.io.Reader;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
@@ -48,27 +47,16 @@ public class MSTTest {
     }
 
     private static List<ParsedGraph> readGraphs(String jsonName) throws Exception {
-        try (Reader r = openJson(jsonName)) {
-            JsonObject root = JsonParser.parseReader(r).getAsJsonObject();
-            JsonArray arr = root.getAsJsonArray("graphs");
+        try (GraphReader reader = new GraphReader(openJson(jsonName))) {
             List<ParsedGraph> out = new ArrayList<>();
-            for (JsonElement ge : arr) {
-                JsonObject gObj = ge.getAsJsonObject();
-                JsonArray nodes = gObj.getAsJsonArray("nodes");
-                JsonArray edges = gObj.getAsJsonArray("edges");
-
+            while (reader.hasNext()) {
+                GraphReader.Item item = reader.next();
                 ParsedGraph pg = new ParsedGraph();
-                pg.id = gObj.get("id").getAsInt();
-                pg.label = gObj.get("label").getAsString();
-                for (JsonElement n : nodes) pg.nodes.add(n.getAsString());
+                pg.id = item.id;
+                pg.label = item.label;
+                pg.nodes.addAll(item.nodes);
                 pg.V = pg.nodes.size();
-
-                Graph g = new Graph();
-                for (JsonElement ee : edges) {
-                    JsonObject e = ee.getAsJsonObject();
-                    g.addEdge(e.get("from").getAsString(), e.get("to").getAsString(), e.get("weight").getAsInt());
-                }
-                pg.g = g;
+                pg.g = item.graph;
                 out.add(pg);
             }
             return out;
@@ -111,12 +99,15 @@ public class MSTTest {
             for (ParsedGraph pg : readGraphs(f)) {
                 AlgoResult pr = Prim.findMST(pg.g, pg.nodes.get(0));
                 AlgoResult kr = Kruskal.findMST(pg.g);
+                AlgoResult br = Boruvka.findMST(pg.g);
                 int expected = Math.max(0, pg.V - 1);
                 boolean primConn = pr.edges.size() == expected;
                 boolean krusConn = kr.edges.size() == expected;
                 if (primConn && krusConn) {
                     assertEquals(sumCost(pr.edges), sumCost(kr.edges), "cost mismatch: " + pg.label);
                 }
+                assertEquals(kr.edges.size(), br.edges.size(), "Boruvka size mismatch: " + pg.label);
+                assertEquals(sumCost(kr.edges), sumCost(br.edges), "Boruvka cost mismatch: " + pg.label);
             }
         }
     }
@@ -138,10 +129,904 @@ public class MSTTest {
                 assertTrue(kr.edges.size() <= expected, "Kruskal edges > V-1: " + pg.label);
                 assertTrue(isAcyclic(pg.nodes, pr.edges), "Prim cycle: " + pg.label);
                 assertTrue(isAcyclic(pg.nodes, kr.edges), "Kruskal cycle: " + pg.label);
+                assertTrue(isAcyclic(pg.nodes, Boruvka.findMST(pg.g).edges), "Boruvka cycle: " + pg.label);
+            }
+        }
+    }
+
+    @Test
+    void boruvkaMatchesKruskalEdgeSet_onAnyPoolSize() throws Exception {
+        for (ParsedGraph pg : readGraphs("ass_3_input_large.json")) {
+            Set<String> expected = new HashSet<>();
+            for (Edge e : Kruskal.findMST(pg.g).edges) expected.add(e.from + "|" + e.to);
+            for (int threads : new int[]{1, 4}) {
+                java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(threads);
+                try {
+                    Set<String> got = new HashSet<>();
+                    for (Edge e : Boruvka.findMST(pg.g, pool).edges) got.add(e.from + "|" + e.to);
+                    assertEquals(expected, got, "Boruvka edge set differs: " + pg.label + " threads=" + threads);
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+    }
+
+    @Test
+    void kruskalRadixAndFallbackSort_matchPrim() {
+        Random rnd = new Random(42);
+        // range 0 draws from all of Integer.MIN_VALUE..MAX_VALUE, so w - minW needs the full 32 bits
+        for (int range : new int[]{1, 10, 2_000_000, 200_000_000, 0}) {
+            Graph g = new Graph();
+            int n = 200;
+            for (int i = 1; i < n; i++) g.addEdge("v" + i, "v" + rnd.nextInt(i), range == 0 ? rnd.nextInt() : rnd.nextInt(range) - range / 2);
+            for (int i = 0; i < 3000; i++) g.addEdge("v" + rnd.nextInt(n), "v" + rnd.nextInt(n), range == 0 ? rnd.nextInt() : rnd.nextInt(range) - range / 2);
+            AlgoResult kr = Kruskal.findMST(g);
+            AlgoResult pr = Prim.findMST(g, "v0");
+            AlgoResult br = Boruvka.findMST(g);
+            long kc = 0, pc = 0;
+            for (Edge e : kr.edges) kc += e.weight;
+            for (Edge e : pr.edges) pc += e.weight;
+            assertEquals(n - 1, kr.edges.size(), "range=" + range);
+            assertEquals(pc, kc, "range=" + range);
+            assertEquals(new HashSet<>(kr.edges.stream().map(e -> e.from + "|" + e.to).toList()),
+                    new HashSet<>(br.edges.stream().map(e -> e.from + "|" + e.to).toList()), "range=" + range);
+            assertTrue(MSTVerifier.verify(g, br).ok(), "range=" + range);
+        }
+
+        Graph ext = new Graph();
+        ext.addEdge("a", "b", Integer.MAX_VALUE); ext.addEdge("b", "c", Integer.MIN_VALUE); ext.addEdge("a", "c", 0);
+        AlgoResult br = Boruvka.findMST(ext);
+        assertTrue(MSTVerifier.verify(ext, br).ok());
+        assertEquals((long) Integer.MIN_VALUE, SolvedGraph.cost(br));
+    }
+
+    @Test
+    void everyPrimHeap_eagerAndLazy_matchesKruskalCost() throws Exception {
+        Random rnd = new Random(11);
+        List<Graph> graphs = new ArrayList<>();
+        for (int range : new int[]{10, 3000, 5_000_000}) {
+            Graph g = new Graph();
+            int n = 300;
+            for (int i = 1; i < n; i++) g.addEdge("v" + i, "v" + rnd.nextInt(i), rnd.nextInt(range) - range / 3);
+            for (int i = 0; i < 2000; i++) g.addEdge("v" + rnd.nextInt(n), "v" + rnd.nextInt(n), rnd.nextInt(range) - range / 3);
+            graphs.add(g);
+        }
+        graphs.add(readGraphs("ass_3_input_disconnected.json").get(0).g);
+        for (ParsedGraph pg : readGraphs("ass_3_input_medium.json")) graphs.add(pg.g);
+        for (Graph g : graphs) {
+            String start = g.getVertexList().get(0);
+            AlgoResult kr = Kruskal.findMST(g);
+            AlgoResult base = Prim.findMST(g, start);
+            for (PrimHeap.Kind kind : PrimHeap.Kind.values()) {
+                for (boolean lazy : new boolean[]{false, true}) {
+                    AlgoResult pr = Prim.findMST(g, start, kind, lazy);
+                    assertEquals(base.edges.size(), pr.edges.size(), kind + " lazy=" + lazy);
+                    assertEquals(sumCost(base.edges), sumCost(pr.edges), kind + " lazy=" + lazy);
+                    if (pr.edges.size() == g.vertexCount() - 1) assertEquals(sumCost(kr.edges), sumCost(pr.edges));
+                }
             }
         }
     }
 
+    @Test
+    void densePrimAndAutoSolver_matchKruskalCost() throws Exception {
+        List<ParsedGraph> all = new ArrayList<>();
+        for (String f : List.of("ass_3_input_small.json", "ass_3_input_large.json", "ass_3_input_disconnected.json")) {
+            all.addAll(readGraphs(f));
+        }
+        for (ParsedGraph pg : all) {
+            AlgoResult kr = Kruskal.findMST(pg.g);
+            AlgoResult dp = DensePrim.findMST(pg.g, pg.nodes.get(0));
+            AlgoResult auto = MSTSolver.auto(pg.g, pg.nodes.get(0));
+            assertEquals(kr.edges.size(), dp.edges.size(), pg.label);
+            assertEquals(sumCost(kr.edges), sumCost(dp.edges), pg.label);
+            assertEquals(sumCost(kr.edges), sumCost(auto.edges), pg.label);
+            assertTrue(isAcyclic(pg.nodes, dp.edges), pg.label);
+        }
+        assertEquals(MSTSolver.Engine.KRUSKAL, MSTSolver.choose(900, 24273));
+        assertEquals(MSTSolver.Engine.KRUSKAL, MSTSolver.choose(260, 289));
+        assertEquals(MSTSolver.Engine.HEAP_PRIM, MSTSolver.choose(100, 500));
+        assertEquals(MSTSolver.Engine.DENSE_PRIM, MSTSolver.choose(180, 4833));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void metricsAreNullWhenOff_andConsistentWhenOn() throws Exception {
+        ParsedGraph pg = readGraphs("ass_3_input_medium.json").get(5);
+        assertNull(Kruskal.findMST(pg.g).metrics, "metrics must stay off without -Dmst.metrics");
+
+        // ENABLED is read once per class load, so switch it on in a private copy of the engine classes
+        String old = System.getProperty("mst.metrics");
+        System.setProperty("mst.metrics", "true");
+        var classes = Graph.class.getProtectionDomain().getCodeSource().getLocation();
+        try (var loader = new java.net.URLClassLoader(new java.net.URL[]{classes}, ClassLoader.getPlatformClassLoader())) {
+            Class<?> graph = loader.loadClass("Graph");
+            Object g = graph.getConstructor().newInstance();
+            var add = graph.getMethod("addEdge", String.class, String.class, int.class);
+            for (Edge e : Kruskal.findMST(pg.g).edges) add.invoke(g, e.from, e.to, e.weight);
+            List<String> vs = pg.g.getVertexList();
+            for (int i = 0; i + 7 < vs.size(); i++) add.invoke(g, vs.get(i), vs.get(i + 7), 10);
+
+            Object kr = loader.loadClass("Kruskal").getMethod("findMST", graph).invoke(null, g);
+            Object pr = loader.loadClass("Prim").getMethod("findMST", graph, String.class).invoke(null, g, vs.get(0));
+            Map<String,Long> k = (Map<String,Long>) invokeMetrics(kr), p = (Map<String,Long>) invokeMetrics(pr);
+            assertEquals(pg.V - 1, k.get("unions"));
+            assertEquals(k.get("edges_scanned"), k.get("unions") + k.get("edges_skipped"));
+            assertEquals(2 * k.get("edges_scanned"), k.get("finds"));
+            assertEquals(pg.V, p.get("heap_polls"));
+            assertEquals(pg.V, p.get("heap_inserts"));
+            assertTrue(p.get("edges_scanned") >= p.get("edges_skipped") + p.get("decrease_keys"));
+        } finally {
+            if (old == null) System.clearProperty("mst.metrics"); else System.setProperty("mst.metrics", old);
+        }
+    }
+
+    private static Object invokeMetrics(Object result) throws Exception {
+        Object m = result.getClass().getField("metrics").get(result);
+        assertNotNull(m);
+        return m.getClass().getMethod("toMap").invoke(m);
+    }
+
+    @Test
+    void graphReaderStreamsGraphsInAnyFieldOrder() throws Exception {
+        String json = "{\"meta\":{\"v\":1},\"graphs\":["
+                + "{\"edges\":[{\"weight\":3,\"to\":\"B\",\"from\":\"A\"},{\"from\":\"B\",\"to\":\"C\",\"weight\":1,\"x\":[1]}],"
+                + "\"nodes\":[\"A\",\"B\",\"C\"],\"label\":\"t\",\"id\":7},"
+                + "{\"id\":8,\"label\":\"empty\",\"nodes\":[],\"edges\":[]}]}";
+        try (GraphReader reader = new GraphReader(new java.io.StringReader(json))) {
+            assertTrue(reader.hasNext());
+            GraphReader.Item first = reader.next();
+            assertEquals(7, first.id);
+            assertEquals("t", first.label);
+            assertEquals(List.of("A", "B", "C"), first.nodes);
+            assertEquals(2, first.edgeCount);
+            assertEquals(4, sumCost(Kruskal.findMST(first.graph).edges));
+            GraphReader.Item second = reader.next();
+            assertEquals(8, second.id);
+            assertTrue(second.graph.isEmpty());
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    void graphBinaryRoundTrip_loadsById() throws Exception {
+        Path json = Paths.get("src", "ass_3_input_medium.json");
+        Path bin = Files.createTempFile("ass_3_input_medium", ".bin");
+        try {
+            GraphBinary.convert(json, bin);
+            List<ParsedGraph> expected = readGraphs("ass_3_input_medium.json");
+            try (GraphBinary gb = GraphBinary.open(bin)) {
+                assertEquals(expected.size(), gb.size());
+                for (int i = expected.size() - 1; i >= 0; i--) {
+                    ParsedGraph pg = expected.get(i);
+                    GraphReader.Item item = gb.load(pg.id);
+                    assertEquals(pg.label, item.label);
+                    assertEquals(pg.nodes, item.nodes);
+                    assertEquals(pg.g.getVertexList(), item.graph.getVertexList());
+                    assertArrayEquals(Arrays.copyOf(pg.g.getEdgeW(), pg.g.edgeCount()), Arrays.copyOf(item.graph.getEdgeW(), item.graph.edgeCount()));
+                    List<Edge> a = Kruskal.findMST(pg.g).edges, b = Kruskal.findMST(item.graph).edges;
+                    assertEquals(a.toString(), b.toString(), "MST differs after round trip: " + pg.label);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(bin);
+        }
+    }
+
+    @Test
+    void externalKruskal_spillsMergesAndMatchesKruskal() throws Exception {
+        Random rnd = new Random(17);
+        Graph g = new Graph();
+        for (int i = 1; i < 3000; i++) g.addEdge("v" + rnd.nextInt(i), "v" + i, 1 + rnd.nextInt(40));
+        for (int i = 0; i < 40000; i++) {
+            int a = rnd.nextInt(3000), b = rnd.nextInt(3000);
+            if (a != b) g.addEdge("v" + a, "v" + b, 1 + rnd.nextInt(40));
+        }
+        String expected = Kruskal.findMST(g).edges.toString();
+
+        // 1024-edge runs and a fan-in of 2 force several merge passes
+        Path tmp = Files.createTempDirectory("mst-ext-test");
+        ExternalKruskal.Options opt = new ExternalKruskal.Options();
+        opt.memoryBytes = 200_000;
+        opt.ioBufferBytes = 1 << 16;
+        opt.tempDir = tmp;
+        opt.stats = new ExternalKruskal.Stats();
+        AlgoResult r = ExternalKruskal.findMST(ExternalKruskal.of(g), g.getVertexList(), opt);
+        assertEquals(expected, r.edges.toString());
+        assertTrue(opt.stats.runs > 2 && opt.stats.mergePasses > 0);
+        assertTrue(opt.stats.stoppedEarly && opt.stats.edgesMerged < g.edgeCount());
+        try (var files = Files.list(tmp)) { assertEquals(0, files.count()); }
+
+        // streamed from the binary container, in memory
+        Path bin = Files.createTempFile("ass_3_input_large", ".bin");
+        try {
+            GraphBinary.convert(Paths.get("src", "ass_3_input_large.json"), bin);
+            try (GraphBinary gb = GraphBinary.open(bin)) {
+                for (int id : gb.ids()) {
+                    Graph big = gb.load(id).graph;
+                    AlgoResult e = ExternalKruskal.findMST(gb.edges(id, 1 << 12), gb.vertices(id), new ExternalKruskal.Options());
+                    assertEquals(Kruskal.findMST(big).edges.toString(), e.edges.toString());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(bin);
+        }
+    }
+
+    @Test
+    void filterKruskal_matchesKruskal_withConcurrentUnionFind() throws Exception {
+        java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(3);
+        Random rnd = new Random(18);
+        for (int[] shape : new int[][]{{50, 300, 5}, {5000, 60000, 100}, {20000, 80000, 1_000_000}}) {
+            Graph g = new Graph();
+            for (int i = 0; i < shape[1]; i++) {
+                int a = rnd.nextInt(shape[0]), b = rnd.nextInt(shape[0]);
+                if (a != b) g.addEdge("v" + a, "v" + b, rnd.nextInt(shape[2]) - shape[2] / 2);
+            }
+            String expected = Kruskal.findMST(g).edges.toString();
+            assertEquals(expected, FilterKruskal.findMST(g, null).edges.toString());
+            assertEquals(expected, FilterKruskal.findMST(g, pool).edges.toString());
+        }
+
+        // concurrent unions end in the same partition as sequential ones
+        int n = 20000;
+        int[][] pairs = new int[4][n];
+        ConcurrentUnionFind seq = new ConcurrentUnionFind(n), par = new ConcurrentUnionFind(n);
+        for (int[] p : pairs) for (int i = 0; i < n; i++) { p[i] = rnd.nextInt(n); }
+        for (int t = 0; t < 4; t += 2) for (int i = 0; i < n; i++) seq.union(pairs[t][i], pairs[t + 1][i]);
+        pool.submit(() -> java.util.stream.IntStream.range(0, n).parallel().forEach(i -> {
+            par.union(pairs[0][i], pairs[1][i]);
+            par.union(pairs[2][i], pairs[3][i]);
+        })).get();
+        for (int i = 0; i < n; i++) assertEquals(seq.find(i), par.find(i));
+        pool.shutdown();
+    }
+
+    @Test
+    void graphGenerator_isSeededAndThreadIndependent_acrossFormats() throws Exception {
+        Path dir = Files.createTempDirectory("mst-gen-test");
+        try {
+            for (GraphGenerator.Family f : GraphGenerator.Family.values()) {
+                GraphGenerator.Spec s = new GraphGenerator.Spec();
+                s.family = f;
+                s.n = 30000;
+                s.degree = 5;
+                s.components = 7;
+                s.weights = GraphGenerator.Weights.NORMAL;
+                s.seed = 19;
+                Path a = dir.resolve(f + "-1.json"), b = dir.resolve(f + "-3.json"), bin = dir.resolve(f + ".bin");
+                long m = GraphGenerator.writeJson(s, a, 1);
+                assertEquals(m, GraphGenerator.writeJson(s, b, 3));
+                assertEquals(-1, Files.mismatch(a, b));
+                assertEquals(m, GraphGenerator.writeBinary(s, bin, 2));
+
+                GraphReader.Item fromJson;
+                try (GraphReader r = GraphReader.open(a)) { fromJson = r.next(); }
+                GraphReader.Item fromBin;
+                try (GraphBinary gb = GraphBinary.open(bin)) { fromBin = gb.load(s.id); }
+                assertEquals(m, fromJson.graph.edgeCount());
+                assertEquals(s.n, fromBin.nodes.size());
+                assertEquals(fromJson.label, fromBin.label);
+                int cost = sumCost(Kruskal.findMST(fromJson.graph).edges);
+                assertEquals(cost, sumCost(Kruskal.findMST(fromBin.graph).edges));
+                assertEquals(cost, sumCost(Kruskal.findMST(GraphGenerator.generate(s)).edges));
+                for (int i = 0; i < fromBin.graph.edgeCount(); i++) assertTrue(fromBin.graph.getEdgeW()[i] >= s.minWeight && fromBin.graph.getEdgeW()[i] <= s.maxWeight);
+
+                SpanningForest forest = SpanningForest.find(fromJson.graph, fromJson.nodes, null);
+                if (f == GraphGenerator.Family.COMPONENTS) assertEquals(7, forest.components());
+                else assertTrue(forest.components() < s.n / 10); // isolated low-degree vertices only
+                assertEquals(cost, forest.cost());
+            }
+        } finally {
+            try (var files = Files.list(dir)) { for (Path p : files.toList()) Files.delete(p); }
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    void mstVerifier_acceptsEveryEngine_andReportsViolations() throws Exception {
+        for (String f : List.of("ass_3_input_small.json", "ass_3_input_large.json", "ass_3_input_disconnected.json")) {
+            for (ParsedGraph pg : readGraphs(f)) {
+                assertTrue(MSTVerifier.verify(pg.g, Kruskal.findMST(pg.g)).ok(), pg.label);
+                assertTrue(MSTVerifier.verify(pg.g, Boruvka.findMST(pg.g)).ok(), pg.label);
+            }
+        }
+
+        // swapping a tree edge for a heavier edge that reconnects the tree breaks the cycle property there
+        Random rnd = new Random(20);
+        for (int round = 0; round < 30; round++) {
+            Graph g = new Graph();
+            int n = 60;
+            for (int i = 1; i < n; i++) g.addEdge("v" + rnd.nextInt(i), "v" + i, 1 + rnd.nextInt(30));
+            for (int i = 0; i < 200; i++) {
+                int a = rnd.nextInt(n), b = rnd.nextInt(n);
+                if (a != b) g.addEdge("v" + a, "v" + b, 1 + rnd.nextInt(30));
+            }
+            // the violation count for an arbitrary spanning tree matches brute-force path maxima
+            List<Edge> random = new ArrayList<>();
+            Map<String,Map<String,Integer>> adj = new HashMap<>();
+            int[] eu0 = g.getEdgeU(), ev0 = g.getEdgeV(), ew0 = g.getEdgeW();
+            for (int e = 0; e < n - 1; e++) {
+                Edge x = new Edge(g.getVertexList().get(eu0[e]), g.getVertexList().get(ev0[e]), ew0[e]);
+                random.add(x);
+                adj.computeIfAbsent(x.from, k -> new HashMap<>()).put(x.to, x.weight);
+                adj.computeIfAbsent(x.to, k -> new HashMap<>()).put(x.from, x.weight);
+            }
+            long brute = 0;
+            for (int e = 0; e < g.edgeCount(); e++) {
+                String a = g.getVertexList().get(eu0[e]), b = g.getVertexList().get(ev0[e]);
+                Map<String,Integer> best = new HashMap<>(Map.of(a, Integer.MIN_VALUE));
+                Deque<String> queue = new ArrayDeque<>(List.of(a));
+                while (!queue.isEmpty()) {
+                    String v = queue.poll();
+                    for (var nb : adj.get(v).entrySet()) {
+                        if (best.containsKey(nb.getKey())) continue;
+                        best.put(nb.getKey(), Math.max(best.get(v), nb.getValue()));
+                        queue.add(nb.getKey());
+                    }
+                }
+                if (ew0[e] < best.get(b)) brute++;
+            }
+            assertEquals(brute, MSTVerifier.verify(g, random).violationCount);
+
+            List<Edge> tree = new ArrayList<>(Kruskal.findMST(g).edges);
+            Edge cut = tree.remove(rnd.nextInt(tree.size()));
+            DSU dsu = new DSU(n);
+            for (Edge e : tree) dsu.union(Integer.parseInt(e.from.substring(1)), Integer.parseInt(e.to.substring(1)));
+            Edge heavier = null;
+            int[] eu = g.getEdgeU(), ev = g.getEdgeV(), ew = g.getEdgeW();
+            List<String> names = g.getVertexList();
+            for (int e = 0; e < g.edgeCount(); e++) {
+                int a = Integer.parseInt(names.get(eu[e]).substring(1)), b = Integer.parseInt(names.get(ev[e]).substring(1));
+                if (ew[e] > cut.weight && dsu.find(a) != dsu.find(b)) { heavier = new Edge(names.get(eu[e]), names.get(ev[e]), ew[e]); break; }
+            }
+            MSTVerifier.Report missing = MSTVerifier.verify(g, tree);
+            assertFalse(missing.ok());
+            assertTrue(missing.violations.stream().allMatch(v -> v.heaviest == null));
+            if (heavier == null) continue;
+            tree.add(heavier);
+            MSTVerifier.Report r = MSTVerifier.verify(g, tree);
+            assertFalse(r.ok());
+            assertTrue(r.problems.isEmpty());
+            for (MSTVerifier.Violation v : r.violations) {
+                assertTrue(v.edge.weight < v.heaviest.weight);
+                assertTrue(v.heaviest.weight <= heavier.weight);
+            }
+        }
+
+        Graph g = new Graph();
+        g.addEdge("a", "b", 1); g.addEdge("b", "c", 2); g.addEdge("a", "c", 3);
+        assertEquals(1, MSTVerifier.verify(g, List.of(new Edge("a", "b", 1), new Edge("b", "c", 2), new Edge("a", "c", 3))).problems.size());
+        assertEquals(1, MSTVerifier.verify(g, List.of(new Edge("a", "b", 1), new Edge("b", "x", 2))).problems.size());
+        assertEquals(1, MSTVerifier.verify(g, List.of(new Edge("a", "b", 1), new Edge("b", "c", 5))).problems.size());
+
+        // a verified batch runs Kruskal only and certifies it
+        BatchRunner.Options opt = new BatchRunner.Options();
+        opt.verify = true;
+        BatchRunner.run(BatchRunner.findInputs(Paths.get(""), 2), opt, r -> {
+            assertNull(r.prim);
+            assertNull(r.boruvka);
+            assertTrue(r.verification.ok(), r.item.label);
+            assertEquals(r.connected(), r.costsEqual());
+        });
+    }
+
+    @Test
+    void dynamicMstTracksKruskalUnderRandomUpdates() {
+        Random rnd = new Random(7);
+        int n = 40;
+        Graph g = new Graph();
+        for (int i = 0; i < 120; i++) g.addEdge("v" + rnd.nextInt(n), "v" + rnd.nextInt(n), 1 + rnd.nextInt(20));
+        DynamicMST dyn = new DynamicMST(g, Prim.findMST(g, "v0"));
+        for (int step = 0; step < 600; step++) {
+            String a = "v" + rnd.nextInt(n), b = "v" + rnd.nextInt(n);
+            int w = 1 + rnd.nextInt(20);
+            switch (rnd.nextInt(3)) {
+                case 0 -> { g.removeEdge(a, b); g.addEdge(a, b, w); dyn.insertEdge(a, b, w); }
+                case 1 -> assertEquals(g.removeEdge(a, b), dyn.deleteEdge(a, b));
+                default -> {
+                    if (g.removeEdge(a, b)) { g.addEdge(a, b, w); dyn.updateWeight(a, b, w); }
+                }
+            }
+            AlgoResult kr = Kruskal.findMST(g);
+            assertEquals(sumCost(kr.edges), dyn.totalCost(), "cost after step " + step);
+            assertEquals(kr.edges.size(), dyn.treeSize(), "size after step " + step);
+        }
+        assertEquals(dyn.totalCost(), sumCost(dyn.treeEdges()));
+    }
+
+    @Test
+    void dynamicMst_treeDeletions_doPolylogWork_amongManyNonTreeEdges() {
+        Random rnd = new Random(17);
+        int n = 1000;
+        Graph g = new Graph();
+        for (int i = 1; i < n; i++) g.addEdge("v" + i, "v" + rnd.nextInt(i), 1 + rnd.nextInt(1000));
+        for (int i = 0; i < 20 * n; i++) g.addEdge("v" + rnd.nextInt(n), "v" + rnd.nextInt(n), 1 + rnd.nextInt(1000));
+        DynamicMST dyn = new DynamicMST(g, Kruskal.findMST(g));
+        int nonTree = g.edgeCount() - dyn.treeSize(), deletions = 500;
+        long before = dyn.operations();
+        for (int k = 0; k < deletions; k++) {
+            List<Edge> tree = dyn.treeEdges();
+            Edge e = tree.get(rnd.nextInt(tree.size()));
+            assertTrue(dyn.deleteEdge(e.from, e.to));
+            g.removeEdge(e.from, e.to);
+        }
+        double perDeletion = (dyn.operations() - before) / (double) deletions, lg = Math.log(n) / Math.log(2);
+        // a scan of the non-tree edges would cost about nonTree per deletion
+        assertTrue(perDeletion < 4 * lg * lg, "ops per deletion " + perDeletion);
+        assertTrue(perDeletion * 40 < nonTree, "ops per deletion " + perDeletion + " vs " + nonTree + " non-tree edges");
+        AlgoResult kr = Kruskal.findMST(g);
+        assertEquals(sumCost(kr.edges), dyn.totalCost());
+        assertEquals(kr.edges.size(), dyn.treeSize());
+    }
+
+    @Test
+    void graphBuilderDedupesAndSharesDictionary() {
+        VertexDictionary dict = new VertexDictionary();
+        Graph g1 = new GraphBuilder(dict).addEdge("B", "A", 4).addEdge("A", "B", 9).addEdge("B", "C", 1).build();
+        Graph g2 = new GraphBuilder(dict).addEdge("C", "D", 2).build();
+        assertEquals(4, dict.size());
+        assertEquals(List.of("B", "A", "C"), g1.getVertexList());
+        assertEquals(List.of("A", "B", "C"), g1.getSortedVertexList());
+        assertEquals(2, g1.edgeCount());
+        assertEquals(5, sumCost(Kruskal.findMST(g1).edges));
+        assertEquals(List.of("C", "D"), g2.getVertexList());
+        g1.addEdge("A", "B", 100);
+        g1.addEdge("A", "C", 2);
+        assertEquals(3, g1.edgeCount());
+        assertEquals(3, sumCost(Kruskal.findMST(g1).edges));
+
+        // build() starts the builder over: pairs of the earlier graph are new again, and that graph is untouched
+        GraphBuilder reused = new GraphBuilder(dict);
+        Graph first = reused.addEdge("A", "B", 1).addEdge("B", "C", 2).build();
+        Graph second = reused.addEdge("B", "A", 7).addEdge("D", "E", 3).build();
+        assertEquals(List.of("B", "A", "D", "E"), second.getVertexList());
+        assertEquals(2, second.edgeCount());
+        assertEquals(10, sumCost(Kruskal.findMST(second).edges));
+        assertEquals(List.of("A", "B", "C"), first.getVertexList());
+        assertEquals(3, sumCost(Kruskal.findMST(first).edges));
+        for (int i = 0; i < 40; i++) reused.addEdge("x" + i, "x" + (i + 1), i);
+        assertEquals(40, reused.build().edgeCount());
+    }
+
+    @Test
+    void graphIndex_isIncremental_withStableIdsAndSnapshots() {
+        Graph built = new GraphBuilder().addEdge("m", "c", 3).addEdge("c", "x", 1).addEdge("x", "m", 7).build();
+        int[] u0 = built.getEdgeU(), v0 = built.getEdgeV(), w0 = built.getEdgeW();
+        int[] u0copy = u0.clone(), v0copy = v0.clone();
+        AlgoResult before = Kruskal.findMST(built);
+        built.removeEdge("c", "m"); // the handed-out arrays are copied before the swap
+        assertArrayEquals(u0copy, u0);
+        assertArrayEquals(v0copy, v0);
+        assertFalse(before.tree.sameGraph(built));
+        assertEquals(4, before.tree.cost);
+        int[] offsets = built.getOffsets(), edgeU = built.getEdgeU();
+        built.addEdge("m", "x", 99); // a duplicate keeps the cached structures
+        assertSame(offsets, built.getOffsets());
+        assertSame(edgeU, built.getEdgeU());
+        List<int[]> uniq = built.getEdgesUniqueInt();
+        assertEquals(2, uniq.size());
+        for (int i = 0; i < uniq.size(); i++)
+            assertArrayEquals(new int[]{edgeU[i], built.getEdgeV()[i], built.getEdgeW()[i]}, uniq.get(i));
+        int vx = built.getIndex().get("x"), wx = 0;
+        for (int[] tw : built.neighborsInt(vx)) wx += tw[1];
+        assertEquals(2, built.neighborsInt(vx).size());
+        assertEquals(8, wx);
+        // the old name-based accessors are views too, and follow later changes
+        List<Edge> nbX = built.neighbors("x");
+        java.util.function.Function<List<Edge>, Set<String>> named = es -> {
+            Set<String> out = new HashSet<>();
+            for (Edge e : es) out.add(e.from + "-" + e.to + "(" + e.weight + ")");
+            return out;
+        };
+        assertEquals(Set.of("x-c(1)", "x-m(7)"), named.apply(nbX));
+        assertTrue(built.neighbors("nope").isEmpty());
+        List<Edge> unique = built.getEdgesUnique();
+        assertEquals(Set.of("c-x(1)", "m-x(7)"), named.apply(unique));
+        List<int[]>[] adj = built.getAdjInt();
+        assertEquals(built.vertexCount(), adj.length);
+        built.addEdge("c", "q", 5);
+        assertEquals(3, unique.size());
+        assertEquals(2, adj[built.getIndex().get("c")].size());
+        assertThrows(UnsupportedOperationException.class, () -> nbX.add(new Edge("x", "q", 1)));
+        built.removeEdge("c", "q");
+
+        Random rnd = new Random(24);
+        Graph g = new Graph();
+        Map<String,Integer> firstIds = new HashMap<>();
+        Map<String,Integer> live = new HashMap<>(); // "a|b" with a < b -> weight
+        for (int step = 0; step < 600; step++) {
+            String a = "n" + rnd.nextInt(40 + step / 10), b = "n" + rnd.nextInt(40 + step / 10);
+            if (a.equals(b)) continue;
+            String key = a.compareTo(b) < 0 ? a + "|" + b : b + "|" + a;
+            if (rnd.nextInt(4) == 0 && live.containsKey(key)) {
+                int[] snap = g.getEdgeW().clone(), held = g.getEdgeW();
+                assertTrue(g.removeEdge(a, b));
+                live.remove(key);
+                assertArrayEquals(snap, held);
+            } else {
+                int w = rnd.nextInt(50);
+                g.addEdge(a, b, w);
+                live.putIfAbsent(key, w);
+            }
+            // ids never move, new names are appended
+            for (var e : g.getIndex().entrySet()) assertEquals(e.getValue(), firstIds.computeIfAbsent(e.getKey(), k -> e.getValue()));
+            assertEquals(g.vertexCount(), firstIds.size());
+            for (int i = 0; i < g.vertexCount(); i++) assertEquals(i, g.getIndex().get(g.getVertexList().get(i)));
+
+            if (step % 25 == 0) {
+                int[] eu = g.getEdgeU(), ev = g.getEdgeV(), ew = g.getEdgeW(), off = g.getOffsets(), ends = g.getEnds(), tgt = g.getTargets();
+                int m = g.edgeCount(), half = 0;
+                assertEquals(live.size(), m);
+                for (int v = 0; v < g.vertexCount(); v++) half += ends[v] - off[v];
+                assertEquals(2 * m, half);
+                for (int e = 0; e < m; e++) {
+                    assertTrue(eu[e] < ev[e]);
+                    String x = g.getVertexList().get(eu[e]), y = g.getVertexList().get(ev[e]);
+                    assertEquals(live.get(x.compareTo(y) < 0 ? x + "|" + y : y + "|" + x), ew[e]);
+                    boolean found = false;
+                    for (int i = off[eu[e]]; i < ends[eu[e]]; i++) found |= tgt[i] == ev[e];
+                    assertTrue(found);
+                }
+                Graph fresh = new Graph();
+                for (var e : live.entrySet()) { String[] p = e.getKey().split("\\|"); fresh.addEdge(p[0], p[1], e.getValue()); }
+                assertEquals(Kruskal.findMST(fresh).tree.cost, Kruskal.findMST(g).tree.cost, "step " + step);
+                List<String> names = new ArrayList<>(g.getVertexList());
+                Collections.sort(names);
+                assertEquals(names, g.getSortedVertexList());
+            }
+        }
+    }
+
+    @Test
+    void graphIndex_appendsAfterQueries_relayOutGeometrically() {
+        Graph g = new Graph();
+        for (int i = 1; i < 1000; i++) g.addEdge("v" + (i / 2), "v" + i, i);
+        g.getOffsets();
+        int[] held = g.getEdgeW();
+        int heldCount = g.edgeCount(), layouts = 0, copies = 0;
+        int[] tgt = g.getTargets(), ew = held;
+        Random rnd = new Random(7);
+        for (int k = 0; k < 30_000; k++) {
+            g.addEdge("v" + rnd.nextInt(1000 + k / 10), "w" + k, k);
+            if (g.getTargets() != tgt) { tgt = g.getTargets(); layouts++; }
+            if (g.getEdgeW() != ew) { ew = g.getEdgeW(); copies++; }
+        }
+        // 30x the edges: a handful of re-layouts and array growths, not one per query
+        assertTrue(layouts <= 8, "layouts " + layouts);
+        assertTrue(copies <= 8, "copies " + copies);
+        for (int i = 0; i < heldCount; i++) assertEquals(i + 1, held[i]); // appends never write below a snapshot
+        int[] off = g.getOffsets(), ends = g.getEnds();
+        int deg = 0;
+        for (int u = 0; u < g.vertexCount(); u++) deg += ends[u] - off[u];
+        assertEquals(2 * g.edgeCount(), deg);
+        assertEquals(SolvedGraph.cost(Kruskal.findMST(g)), SolvedGraph.cost(Prim.findMST(g, "v0")));
+    }
+
+    @Test
+    void scenarioSolver_matchesColdKruskal_perWeightVector() {
+        Random rnd = new Random(25);
+        Graph g = new Graph();
+        for (int i = 0; i < 900; i++) g.addEdge("c" + rnd.nextInt(200), "c" + (200 + rnd.nextInt(150)), 1); // a bipartite component
+        for (int i = 0; i < 300; i++) g.addEdge("d" + rnd.nextInt(60), "d" + rnd.nextInt(60), 1);           // a second component
+        ScenarioSolver solver = new ScenarioSolver(g);
+        int[] eu = g.getEdgeU(), ev = g.getEdgeV();
+        List<String> names = g.getVertexList();
+        assertEquals(g.vertexCount() - SpanningForest.find(g).components(), solver.treeSize());
+        assertEquals(3, solver.edge(names.get(ev[3]), names.get(eu[3])));
+        assertEquals(-1, solver.edge("c0", "d0"));
+
+        List<int[]> scenarios = new ArrayList<>();
+        for (int s = 0; s < 24; s++) {
+            int[] w = new int[solver.edgeCount()];
+            int range = s % 3 == 0 ? 5 : s % 3 == 1 ? 1000 : Integer.MAX_VALUE / 2; // ties, radix and fallback sort
+            for (int e = 0; e < w.length; e++) w[e] = rnd.nextInt(range) - range / 4;
+            scenarios.add(w);
+        }
+        ScenarioSolver.Result serial = solver.solve(scenarios, null);
+        ScenarioSolver.Result parallel;
+        try (java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(3)) {
+            parallel = solver.solve(scenarios, pool);
+            assertArrayEquals(parallel.tree, solver.solve(scenarios, pool).tree); // buffers reused, same answers
+        }
+        assertArrayEquals(serial.cost, parallel.cost);
+        assertArrayEquals(serial.tree, parallel.tree);
+        for (int s = 0; s < scenarios.size(); s++) {
+            int[] w = scenarios.get(s);
+            Graph cold = new Graph();
+            for (int e = 0; e < w.length; e++) cold.addEdge(names.get(eu[e]), names.get(ev[e]), w[e]);
+            MSTTree t = Kruskal.findMST(cold).tree;
+            assertEquals(t.cost, serial.cost[s], "scenario " + s);
+            assertEquals(t.size(), serial.treeSize);
+            for (int i = 0; i < t.size(); i++) assertEquals(t.edge(i), serial.edge(s, i), "scenario " + s);
+        }
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(List.of(new int[3])));
+    }
+
+    @Test
+    void longIntMapMatchesHashMap() {
+        Random rnd = new Random(3);
+        LongIntMap map = new LongIntMap(4);
+        Map<Long,Integer> ref = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            long k = LongIntMap.pair(rnd.nextInt(300), rnd.nextInt(300));
+            switch (rnd.nextInt(3)) {
+                case 0 -> { Integer old = ref.remove(k); assertEquals(old == null ? LongIntMap.MISSING : old, map.remove(k)); }
+                case 1 -> { int v = rnd.nextInt(1000); map.put(k, v); ref.put(k, v); }
+                default -> assertEquals(ref.getOrDefault(k, LongIntMap.MISSING), map.get(k));
+            }
+        }
+        assertEquals(ref.size(), map.size());
+    }
+
+    @Test
+    void batchRunnerEmitsInInputOrder_underBackpressure() throws Exception {
+        List<Path> inputs = BatchRunner.findInputs(Paths.get(""), 2);
+        List<String> expected = new ArrayList<>();
+        for (Path p : inputs) {
+            GraphReader.forEach(p, item -> expected.add(p.getFileName() + "#" + item.id));
+        }
+        BatchRunner.Options opt = new BatchRunner.Options();
+        opt.workers = 3;
+        opt.maxInFlight = 2;
+        opt.openFiles = 2;
+        List<String> seen = new ArrayList<>();
+        long n = BatchRunner.run(inputs, opt, r -> {
+            seen.add(r.file + "#" + r.item.id);
+            assertEquals(SolvedGraph.cost(r.kruskal), SolvedGraph.cost(r.boruvka), r.item.label);
+            assertTrue(r.primMs >= 0 && r.kruskalMs >= 0 && r.boruvkaMs >= 0);
+        });
+        assertEquals(expected.size(), n);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void pipelineSolvesOnceAndFansOutToEverySink() throws Exception {
+        Path dir = Files.createTempDirectory("mst-pipeline");
+        List<Path> inputs = MSTPipeline.inputs(Paths.get(""));
+        List<SolvedGraph> seen = new ArrayList<>();
+        ResultSink counting = new ResultSink() {
+            @Override public void accept(SolvedGraph r) { seen.add(r); }
+            @Override public void close() {}
+        };
+        long n = MSTPipeline.run(inputs, new BatchRunner.Options(), List.of(
+                new GenerateOutputs.Sink(dir.resolve("out.json")),
+                new GenerateOutputsCsv.Sink(dir.resolve("out.csv")),
+                new RenderGraphs.Sink(dir.resolve("png")),
+                counting));
+        assertEquals(n, seen.size());
+        assertEquals(n + 1, Files.readAllLines(dir.resolve("out.csv")).size());
+        try (var s = Files.list(dir.resolve("png"))) { assertEquals(n, s.count()); }
+        String json = Files.readString(dir.resolve("out.json"));
+        assertEquals(n, json.split("\"graph_id\"", -1).length - 1);
+    }
+
+    @Test
+    void mstTree_matchesEdgeLists_andSurvivesGraphChanges() throws Exception {
+        for (String f : List.of("ass_3_input_small.json", "ass_3_input_large.json", "ass_3_input_disconnected.json")) {
+            for (ParsedGraph pg : readGraphs(f)) {
+                AlgoResult kr = Kruskal.findMST(pg.g), fk = FilterKruskal.findMST(pg.g, null), br = Boruvka.findMST(pg.g);
+                MSTTree t = kr.tree;
+                assertEquals(sumCost(kr.edges), t.cost, pg.label);
+                assertEquals(kr.edges.size(), t.size());
+                assertEquals(kr.edges.toString(), kr.detach().edges.toString());
+                assertEquals(kr.edges.toString(), fk.edges.toString());
+                int[] eu = pg.g.getEdgeU();
+                int inTree = 0;
+                for (int e = 0; e < pg.g.edgeCount(); e++) if (t.contains(e)) { inTree++; assertTrue(br.tree.contains(e), pg.label); }
+                assertEquals(t.size(), inTree);
+                for (int i = 0; i < t.size(); i++) {
+                    assertTrue(t.contains(t.edge(i)));
+                    assertEquals(new Edge(t.name(t.u(i)), t.name(t.v(i)), t.weight(i)).toString(), kr.edges.get(i).toString());
+                }
+            }
+        }
+
+        // the tree keeps the arrays it was solved on; the verifier falls back to names for the changed graph
+        Graph g = new Graph();
+        g.addEdge("a", "b", 1); g.addEdge("b", "c", 2); g.addEdge("a", "c", 3);
+        AlgoResult r = Kruskal.findMST(g);
+        String before = r.edges.toString();
+        assertTrue(r.tree.sameGraph(g));
+        assertTrue(MSTVerifier.verify(g, r).ok());
+        g.addEdge("c", "d", 1);
+        assertFalse(r.tree.sameGraph(g));
+        assertEquals(before, r.edges.toString());
+        assertEquals(3, SolvedGraph.cost(r));
+        MSTVerifier.Report rep = MSTVerifier.verify(g, r);
+        assertFalse(rep.ok());
+        assertEquals(1, rep.violationCount); // c-d joins two trees
+
+        // costs past Integer.MAX_VALUE come out whole, from the tree and from named edges
+        Graph heavy = new Graph();
+        heavy.addEdge("a", "b", 2_000_000_000); heavy.addEdge("b", "c", 2_000_000_000);
+        AlgoResult hr = Kruskal.findMST(heavy);
+        assertEquals(4_000_000_000L, SolvedGraph.cost(hr));
+        assertEquals(4_000_000_000L, SolvedGraph.cost(hr.detach()));
+    }
+
+    @Test
+    void renderSink_drawsInParallel_withLevelOfDetail() throws Exception {
+        Path dir = Files.createTempDirectory("mst-render");
+        List<SolvedGraph> all = new ArrayList<>();
+        BatchRunner.run(BatchRunner.findInputs(Paths.get(""), 2), all::add);
+        try (RenderGraphs.Sink sink = new RenderGraphs.Sink(dir, 3)) {
+            for (SolvedGraph r : all) sink.accept(r);
+        }
+        try (var s = Files.list(dir)) { assertEquals(all.size(), s.count()); }
+
+        // tree edges stay red at every size, dense graphs fade the rest to an opaque light grey
+        for (SolvedGraph r : all) {
+            java.awt.image.BufferedImage img = javax.imageio.ImageIO.read(
+                    dir.resolve(r.file.replace(".json", "") + "__" + r.item.id + ".png").toFile());
+            assertEquals(1400, img.getWidth());
+            boolean red = false, faded = false;
+            for (int y = 0; y < img.getHeight(); y += 2) {
+                for (int x = 0; x < img.getWidth(); x += 2) {
+                    int rgb = img.getRGB(x, y) & 0xFFFFFF;
+                    red |= rgb == 0xDC322F;
+                    faded |= rgb == 0xE6E9ED;
+                }
+            }
+            if (!r.kruskal.edges.isEmpty()) assertTrue(red, r.item.label);
+            if (r.item.graph.edgeCount() > RenderGraphs.FADE_EDGES) assertTrue(faded, r.item.label);
+        }
+    }
+
+    @Test
+    void resultCache_isOrderIndependent_persistsAndInvalidates() throws Exception {
+        Graph a = new Graph(), b = new Graph();
+        a.addEdge("A", "B", 4); a.addEdge("B", "C", 2); a.addEdge("A", "C", 5);
+        b.addEdge("C", "A", 5); b.addEdge("C", "B", 2); b.addEdge("B", "A", 4);
+        MSTCache.Fingerprint fa = MSTCache.fingerprint(a), fb = MSTCache.fingerprint(b);
+        assertEquals(fa.hi, fb.hi);
+        assertEquals(fa.lo, fb.lo);
+        b.removeEdge("A", "C"); b.addEdge("A", "C", 6);
+        assertNotEquals(fa.hi, MSTCache.fingerprint(b).hi);
+
+        Path dir = Files.createTempDirectory("mst-cache");
+        List<Path> inputs = BatchRunner.findInputs(Paths.get(""), 2);
+        List<SolvedGraph> first = new ArrayList<>(), second = new ArrayList<>();
+        BatchRunner.Options opt = new BatchRunner.Options();
+        opt.cache = new MSTCache(1 << 20, dir);
+        long n = BatchRunner.run(inputs, opt, first::add);
+        assertEquals(3 * n, opt.cache.stats.getMisses());
+
+        // a fresh cache over the same directory serves every engine from disk, with the original timings
+        opt.cache = new MSTCache(1 << 20, dir);
+        BatchRunner.run(inputs, opt, second::add);
+        assertEquals(3 * n, opt.cache.stats.getDiskHits());
+        assertEquals(0, opt.cache.stats.getMisses());
+        for (int i = 0; i < n; i++) {
+            assertEquals(first.get(i).kruskalMs, second.get(i).kruskalMs);
+            assertEquals(SolvedGraph.cost(first.get(i).prim), SolvedGraph.cost(second.get(i).prim));
+            assertEquals(first.get(i).kruskal.edges.toString(), second.get(i).kruskal.edges.toString());
+        }
+
+        // a tiny budget evicts; a check mismatch is an invalidation and a miss, never a stale hit
+        MSTCache small = new MSTCache(200, null);
+        small.put(fa, "kruskal", Kruskal.findMST(a), 1);
+        small.put(fa, "prim A", Prim.findMST(a, "A"), 1);
+        assertTrue(small.stats.getEvictions() >= 1 && small.stats.getBytes() <= 200);
+        MSTCache.Fingerprint forged = new MSTCache.Fingerprint(fa.hi, fa.lo, fa.check + 1, fa.n, fa.m, fa.weight);
+        assertNull(small.get(a, forged, "prim A"));
+        assertEquals(1, small.stats.getInvalidations());
+        // same counts and total weight under a colliding fingerprint, but the cached edges' weights differ
+        Graph d = new Graph();
+        d.addEdge("A", "B", 3); d.addEdge("B", "C", 3); d.addEdge("A", "C", 5);
+        MSTCache edges = new MSTCache(1 << 20, null);
+        edges.put(fa, "kruskal", Kruskal.findMST(a), 1);
+        assertNotNull(edges.get(a, fa, "kruskal"));
+        assertNull(edges.get(d, fa, "kruskal"));
+        assertEquals(1, edges.stats.getInvalidations());
+    }
+
+    @Test
+    void streamingWriters_matchFormatAndEdgeModes() throws Exception {
+        GenerateOutputsCsv.RowEncoder enc = new GenerateOutputsCsv.RowEncoder();
+        java.io.StringWriter sw = new java.io.StringWriter();
+        Random rnd = new Random(5);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            double ms = rnd.nextInt(4) == 0 ? rnd.nextInt(50) : rnd.nextDouble() * Math.pow(10, rnd.nextInt(6) - 2);
+            enc.field("a\"b").field(i).fieldMs7(ms).writeTo(sw);
+            expected.append("\"a\"\"b\",\"").append(i).append("\",\"")
+                    .append(String.format(Locale.US, "%.7f", ms)).append('"').append(System.lineSeparator());
+        }
+        assertEquals(expected.toString(), sw.toString());
+
+        Path dir = Files.createTempDirectory("mst-writers");
+        List<Path> inputs = List.of(MSTPipeline.inputs(Paths.get("")).get(0));
+        for (GenerateOutputs.EdgeMode mode : GenerateOutputs.EdgeMode.values()) {
+            Path out = dir.resolve(mode + ".json.gz");
+            MSTPipeline.run(inputs, new BatchRunner.Options(), List.of(new GenerateOutputs.Sink(out, mode, 0)));
+            try (Reader r = new InputStreamReader(new java.util.zip.GZIPInputStream(Files.newInputStream(out)),
+                    StandardCharsets.UTF_8)) {
+                var results = com.google.gson.JsonParser.parseReader(r).getAsJsonObject().getAsJsonArray("results");
+                var prim = results.get(0).getAsJsonObject().getAsJsonObject("prim");
+                assertEquals(mode == GenerateOutputs.EdgeMode.FULL, prim.has("mst_edges"));
+                assertEquals(mode == GenerateOutputs.EdgeMode.COMPACT, prim.has("mst_edges_compact"));
+                assertTrue(prim.has("total_cost"));
+            }
+        }
+    }
+
+    @Test
+    void mstServer_answersTheOutputSchema_batchesAndReportsMetrics() throws Exception {
+        MSTServer.Options opt = new MSTServer.Options();
+        opt.port = 0; opt.workers = 2; opt.warmup = false;
+        java.io.StringWriter sw = new java.io.StringWriter();
+        try (Reader r = openJson("ass_3_input_small.json")) { r.transferTo(sw); }
+        String body = sw.toString();
+        List<ParsedGraph> graphs = readGraphs("ass_3_input_small.json");
+        var client = java.net.http.HttpClient.newHttpClient();
+        try (MSTServer server = MSTServer.start(opt)) {
+            String base = "http://localhost:" + server.port();
+            java.util.function.BiFunction<String, String, java.net.http.HttpResponse<String>> post = (path, b) -> {
+                try {
+                    return client.send(java.net.http.HttpRequest.newBuilder(java.net.URI.create(base + path))
+                            .POST(java.net.http.HttpRequest.BodyPublishers.ofString(b)).build(),
+                            java.net.http.HttpResponse.BodyHandlers.ofString());
+                } catch (Exception e) { throw new RuntimeException(e); }
+            };
+
+            var res = post.apply("/solve?file=small.json", body);
+            assertEquals(200, res.statusCode());
+            var results = com.google.gson.JsonParser.parseString(res.body()).getAsJsonObject().getAsJsonArray("results");
+            assertEquals(graphs.size(), results.size());
+            for (int i = 0; i < graphs.size(); i++) {
+                var o = results.get(i).getAsJsonObject();
+                assertEquals("small.json", o.get("file").getAsString());
+                assertEquals(graphs.get(i).id, o.get("graph_id").getAsInt());
+                var k = o.getAsJsonObject("kruskal");
+                assertEquals(sumCost(Kruskal.findMST(graphs.get(i).g).edges), k.get("total_cost").getAsInt());
+                assertTrue(k.has("mst_edges") && o.has("prim") && o.has("boruvka"));
+            }
+            var compact = com.google.gson.JsonParser.parseString(post.apply("/solve?edges=compact", body).body()).getAsJsonObject();
+            assertTrue(compact.getAsJsonArray("results").get(0).getAsJsonObject().getAsJsonObject("kruskal").has("mst_edges_compact"));
+
+            assertEquals(400, post.apply("/solve", "{\"graphs\": [{\"id\": 1, \"nodes\": [").statusCode());
+            assertEquals(400, post.apply("/solve?edges=some", body).statusCode());
+            assertEquals(405, client.send(java.net.http.HttpRequest.newBuilder(java.net.URI.create(base + "/solve")).build(),
+                    java.net.http.HttpResponse.BodyHandlers.ofString()).statusCode());
+
+            // many concurrent one-graph requests share batches and all get their own answer
+            String one = "{\"graphs\": [{\"id\": %d, \"nodes\": [\"A\", \"B\", \"C\"], \"edges\": [{\"from\": \"A\", \"to\": \"B\", \"weight\": %d}, "
+                    + "{\"from\": \"B\", \"to\": \"C\", \"weight\": 2}, {\"from\": \"A\", \"to\": \"C\", \"weight\": 50}]}]}";
+            int clients = 40;
+            try (var ex = java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor()) {
+                List<java.util.concurrent.Future<Integer>> costs = new ArrayList<>();
+                for (int c = 0; c < clients; c++) {
+                    int w = c + 1;
+                    costs.add(ex.submit(() -> com.google.gson.JsonParser.parseString(post.apply("/solve", String.format(one, w, w)).body())
+                            .getAsJsonObject().getAsJsonArray("results").get(0).getAsJsonObject()
+                            .getAsJsonObject("kruskal").get("total_cost").getAsInt()));
+                }
+                for (int c = 0; c < clients; c++) assertEquals(c + 1 + 2, costs.get(c).get());
+            }
+
+            var m = com.google.gson.JsonParser.parseString(client.send(java.net.http.HttpRequest.newBuilder(java.net.URI.create(base + "/metrics")).build(),
+                    java.net.http.HttpResponse.BodyHandlers.ofString()).body()).getAsJsonObject();
+            assertEquals(2 + clients, m.get("requests").getAsLong());
+            assertEquals(2L * graphs.size() + clients, m.get("graphs").getAsLong());
+            assertEquals(3, m.get("errors").getAsLong());
+            assertTrue(m.get("batches").getAsLong() <= m.get("graphs").getAsLong());
+            var lat = m.getAsJsonObject("request_ms");
+            assertEquals(2 + clients + 3, lat.get("count").getAsLong());
+            assertTrue(lat.get("p50").getAsDouble() <= lat.get("p99").getAsDouble());
+            assertTrue(lat.get("p99").getAsDouble() <= lat.get("max").getAsDouble());
+            assertEquals(0, m.get("in_flight").getAsInt());
+        }
+
+        // buckets are contiguous and every value lies below its bucket's upper edge, within 12.5%
+        for (long us = 0; us < 1 << 20; us += 1 + us / 64) {
+            int b = MSTServer.Latency.bucket(us);
+            assertTrue(us < MSTServer.Latency.upper(b) && MSTServer.Latency.upper(b) <= Math.max(us + 1, (long) (us * 1.125) + 1), "us=" + us);
+            if (b > 0) assertTrue(MSTServer.Latency.upper(b - 1) <= us);
+        }
+    }
+
     @Test
     void handlesDisconnected() throws Exception {
         ParsedGraph pg = readGraphs("ass_3_input_disconnected.json").get(0);
@@ -152,6 +1037,48 @@ public class MSTTest {
         assertTrue(kr.edges.size() < expected, "Kruskal must return < V-1 on disconnected");
     }
 
+    @Test
+    void spanningForest_matchesKruskalPerComponent_sequentialAndParallel() throws Exception {
+        ParsedGraph pg = readGraphs("ass_3_input_disconnected.json").get(0);
+        SpanningForest f = SpanningForest.find(pg.g, pg.nodes, null);
+        AlgoResult kr = Kruskal.findMST(pg.g);
+        assertTrue(f.components() > 1);
+        assertEquals(SolvedGraph.cost(kr), f.cost());
+        assertEquals(pg.V - f.components(), f.toResult().edges.size());
+
+        // isolated input nodes take their place in name order
+        Graph small = new Graph();
+        small.addEdge("m", "n", 1); small.addEdge("c", "d", 2);
+        List<String> roots = new ArrayList<>();
+        for (SpanningForest.Tree t : SpanningForest.find(small, List.of("z", "m", "a", "n", "c", "d", "f"), null).trees) roots.add(t.root);
+        assertEquals(List.of("a", "c", "f", "m", "z"), roots);
+
+        // 3000 fragments, enough edges to take the parallel path
+        Random rnd = new Random(16);
+        Graph g = new Graph();
+        for (int c = 0; c < 3000; c++) {
+            for (int i = 1; i < 12; i++) g.addEdge("c" + c + "v" + rnd.nextInt(i), "c" + c + "v" + i, 1 + rnd.nextInt(50));
+            for (int i = 0; i < 20; i++) {
+                int a = rnd.nextInt(12), b = rnd.nextInt(12);
+                if (a != b) g.addEdge("c" + c + "v" + a, "c" + c + "v" + b, 1 + rnd.nextInt(50));
+            }
+        }
+        assertTrue(g.edgeCount() >= SpanningForest.PARALLEL_MIN_EDGES);
+        SpanningForest seq = SpanningForest.find(g, List.of(), null);
+        SpanningForest par = SpanningForest.find(g, List.of(), new java.util.concurrent.ForkJoinPool(3));
+        assertEquals(3000, par.components());
+        Set<String> expected = new HashSet<>();
+        for (Edge e : Kruskal.findMST(g).edges) expected.add(e.from + "-" + e.to + ":" + e.weight);
+        for (SpanningForest x : List.of(seq, par)) {
+            Set<String> got = new HashSet<>();
+            for (SpanningForest.Tree t : x.trees) {
+                assertEquals(t.vertices - 1, t.edges.size());
+                for (Edge e : t.edges) got.add(e.from + "-" + e.to + ":" + e.weight);
+            }
+            assertEquals(expected, got);
+        }
+    }
+
     @Test
     void reproducibleOnFixedJson() throws Exception {
         List<String> files = List.of(